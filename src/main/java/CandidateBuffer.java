@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * Reusable struct-of-arrays storage for the points the strategy considers moving to during a tick.
+ * <p>
+ * Candidates are addressed by the index {@link #add(double, double)} returned and keep their scores in parallel
+ * primitive arrays. On top of them the buffer keeps an ordering of the candidates still in play, which the sort methods
+ * rearrange stably (equal scores keep their previous relative order, as with {@code List.sort}) and
+ * {@link #retainZeroDamageInterest()} narrows.
+ */
+final class CandidateBuffer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private double[] damageInterests = new double[INITIAL_CAPACITY];
+    private double[] moveInterests = new double[INITIAL_CAPACITY];
+    private int candidateCount;
+
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int orderCount;
+
+    void clear() {
+        candidateCount = 0;
+        orderCount = 0;
+    }
+
+    /**
+     * Adds a candidate with zero scores at the end of the ordering.
+     *
+     * @return the index of the candidate
+     */
+    int add(double x, double y) {
+        if (candidateCount == xs.length) {
+            int capacity = xs.length * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            damageInterests = Arrays.copyOf(damageInterests, capacity);
+            moveInterests = Arrays.copyOf(moveInterests, capacity);
+            order = Arrays.copyOf(order, capacity);
+        }
+
+        int candidate = candidateCount++;
+        xs[candidate] = x;
+        ys[candidate] = y;
+        damageInterests[candidate] = 0.0D;
+        moveInterests[candidate] = 0.0D;
+        order[orderCount++] = candidate;
+        return candidate;
+    }
+
+    /**
+     * @return the number of candidates in the ordering
+     */
+    int size() {
+        return orderCount;
+    }
+
+    boolean isEmpty() {
+        return orderCount == 0;
+    }
+
+    /**
+     * @return the index of the candidate at {@code rank} in the ordering
+     */
+    int get(int rank) {
+        return order[rank];
+    }
+
+    double getX(int candidate) {
+        return xs[candidate];
+    }
+
+    double getY(int candidate) {
+        return ys[candidate];
+    }
+
+    double getDamageInterest(int candidate) {
+        return damageInterests[candidate];
+    }
+
+    double getMoveInterest(int candidate) {
+        return moveInterests[candidate];
+    }
+
+    void appendToDamageInterest(int candidate, double damageInterest) {
+        damageInterests[candidate] += damageInterest;
+    }
+
+    void appendToMoveInterest(int candidate, double moveInterest) {
+        moveInterests[candidate] += moveInterest;
+    }
+
+    void sortByDamageInterest() {
+        sort(damageInterests);
+    }
+
+    void sortByMoveInterest() {
+        sort(moveInterests);
+    }
+
+    /**
+     * Drops the candidates with a non-zero damage interest from the ordering, unless that would drop all of them.
+     *
+     * @return the number of candidates with zero damage interest
+     */
+    int retainZeroDamageInterest() {
+        int retainedCount = 0;
+        for (int rank = 0; rank < orderCount; ++rank) {
+            if (damageInterests[order[rank]] == 0.0D) {
+                ++retainedCount;
+            }
+        }
+
+        if (retainedCount > 0) {
+            int position = 0;
+            for (int rank = 0; rank < orderCount; ++rank) {
+                if (damageInterests[order[rank]] == 0.0D) {
+                    order[position++] = order[rank];
+                }
+            }
+            orderCount = position;
+        }
+
+        return retainedCount;
+    }
+
+    /**
+     * Stable insertion sort of the ordering by ascending {@code keys}. There are a few dozen candidates and the
+     * ordering is often nearly sorted already.
+     */
+    private void sort(double[] keys) {
+        for (int i = 1; i < orderCount; ++i) {
+            int candidate = order[i];
+            double key = keys[candidate];
+            int j = i - 1;
+
+            while (j >= 0 && keys[order[j]] > key) {
+                order[j + 1] = order[j];
+                --j;
+            }
+
+            order[j + 1] = candidate;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+enum Danger {
+    LOW,
+    NORMAL,
+    HIGH;
+}
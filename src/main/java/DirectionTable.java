@@ -0,0 +1,49 @@
+/**
+ * Unit vectors of {@code directionCount} evenly spaced directions, the first one pointing along the x axis.
+ * <p>
+ * The table is computed once, so placing candidate points around a position costs two multiplications per direction
+ * whatever the angular resolution is.
+ */
+final class DirectionTable {
+    private final double[] cosines;
+    private final double[] sines;
+
+    DirectionTable(int directionCount) {
+        if (directionCount <= 0) {
+            throw new IllegalArgumentException("Direction count must be positive: " + directionCount + '.');
+        }
+
+        cosines = new double[directionCount];
+        sines = new double[directionCount];
+
+        double sector = StrictMath.PI * 2.0D / directionCount;
+        for (int direction = 0; direction < directionCount; ++direction) {
+            double angle = sector * direction;
+            cosines[direction] = StrictMath.cos(angle);
+            sines[direction] = StrictMath.sin(angle);
+        }
+    }
+
+    int getDirectionCount() {
+        return cosines.length;
+    }
+
+    double getCos(int direction) {
+        return cosines[direction];
+    }
+
+    double getSin(int direction) {
+        return sines[direction];
+    }
+
+    /**
+     * Writes the points at {@code radius} from ({@code x}, {@code y}) in every direction into {@code xs} and
+     * {@code ys}, which must hold at least {@link #getDirectionCount()} elements.
+     */
+    void fillRing(double x, double y, double radius, double[] xs, double[] ys) {
+        for (int direction = 0; direction < cosines.length; ++direction) {
+            xs[direction] = x + cosines[direction] * radius;
+            ys[direction] = y + sines[direction] * radius;
+        }
+    }
+}
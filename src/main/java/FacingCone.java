@@ -0,0 +1,43 @@
+/**
+ * Cone of directions around the direction a unit faces, for attack sector checks without {@code atan2}.
+ * <p>
+ * A direction ({@code dx}, {@code dy}) is inside if the angle between it and the facing is below the half-angle, which
+ * is tested as {@code dot / |d| > cos(halfAngle)} with both sides squared, so a check costs a few multiplications.
+ * The facing must be a unit vector, e.g. {@code (cos(angle), sin(angle))} computed once per unit and tick. A zero
+ * direction, i.e. a point at the apex, is always inside.
+ */
+final class FacingCone {
+    private final boolean fullCircle;
+    private final double cosHalfAngle;
+    private final double squaredCosHalfAngle;
+
+    /**
+     * @param halfAngle half-angle of the cone; {@code StrictMath.PI} or more covers the full circle
+     */
+    FacingCone(double halfAngle) {
+        this.fullCircle = halfAngle >= StrictMath.PI;
+        this.cosHalfAngle = fullCircle ? -1.0D : StrictMath.cos(halfAngle);
+        this.squaredCosHalfAngle = cosHalfAngle * cosHalfAngle;
+    }
+
+    boolean isFullCircle() {
+        return fullCircle;
+    }
+
+    boolean contains(double dx, double dy, double facingX, double facingY) {
+        return contains(dx, dy, dx * dx + dy * dy, facingX, facingY);
+    }
+
+    /**
+     * @param squaredDistance {@code dx * dx + dy * dy}, when the caller has it already
+     */
+    boolean contains(double dx, double dy, double squaredDistance, double facingX, double facingY) {
+        if (fullCircle || squaredDistance == 0.0D) {
+            return true;
+        }
+
+        double dot = dx * facingX + dy * facingY;
+        double bound = squaredCosHalfAngle * squaredDistance;
+        return cosHalfAngle >= 0.0D ? dot > 0.0D && dot * dot > bound : dot >= 0.0D || dot * dot < bound;
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process transport for a stand-in server running in the same JVM, such as {@link RecordedGameServer}. A new
+ * instance is the client endpoint and {@link #getPeer()} is the server endpoint.
+ * <p>
+ * Written bytes are handed to the peer as pooled {@link ByteBuffer} frames through a queue. Drained frames return to
+ * the writer's pool, so steady-state traffic allocates no buffers and never goes through the kernel.
+ */
+public final class LoopbackTransport implements Transport {
+    private static final int FRAME_SIZE_BYTES = 1 << 16;
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+    private final LoopbackTransport peer;
+    private final BlockingQueue<ByteBuffer> inboundFrames = new LinkedBlockingQueue<>();
+    private final Queue<ByteBuffer> framePool = new ConcurrentLinkedQueue<>();
+
+    private ByteBuffer currentFrame;
+    private boolean closed;
+
+    public LoopbackTransport() {
+        peer = new LoopbackTransport(this);
+    }
+
+    private LoopbackTransport(LoopbackTransport peer) {
+        this.peer = peer;
+    }
+
+    public LoopbackTransport getPeer() {
+        return peer;
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        if (currentFrame == null) {
+            try {
+                currentFrame = inboundFrames.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a loopback frame.");
+            }
+        }
+
+        if (currentFrame == END_OF_STREAM) {
+            return -1;
+        }
+
+        int limit = currentFrame.limit();
+        int byteCount = StrictMath.min(currentFrame.remaining(), target.remaining());
+
+        currentFrame.limit(currentFrame.position() + byteCount);
+        target.put(currentFrame);
+        currentFrame.limit(limit);
+
+        if (!currentFrame.hasRemaining()) {
+            peer.framePool.offer(currentFrame);
+            currentFrame = null;
+        }
+
+        return byteCount;
+    }
+
+    @Override
+    public void write(ByteBuffer source) throws IOException {
+        if (closed) {
+            throw new IOException("Loopback transport is closed.");
+        }
+
+        if (!source.hasRemaining()) {
+            return;
+        }
+
+        ByteBuffer frame = framePool.poll();
+        if (frame == null || frame.capacity() < source.remaining()) {
+            frame = ByteBuffer.allocate(StrictMath.max(FRAME_SIZE_BYTES, source.remaining()));
+        }
+
+        frame.clear();
+        frame.put(source);
+        frame.flip();
+
+        peer.inboundFrames.add(frame);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            peer.inboundFrames.add(END_OF_STREAM);
+        }
+    }
+}
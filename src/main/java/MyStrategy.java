@@ -2,14 +2,12 @@ import model.*;
 
 import java.util.*;
 
-enum Danger {
-    LOW,
-    NORMAL,
-    HIGH;
-}
-
 public final class MyStrategy implements Strategy {
     private static final double WAYPOINT_RADIUS = 200.0D;
+    private static final Faction[] FACTIONS = Faction.values();
+    private static final double GRID_CELL_SIZE = 200.0D;
+    private static final double GRID_EPSILON = 1.0E-6D;
+    private static final double THREAT_CELL_SIZE = 100.0D;
 
     private static final double LOW_HP_FACTOR_SKILLS = 0.30D;
     private static final double HIGH_HP_FACTOR_SKILLS = 0.90D;
@@ -34,43 +32,65 @@ public final class MyStrategy implements Strategy {
     private World world;
     private Game game;
     private Move move;
-    private double angles[] = getAngles();
+    private final DirectionTable directions;
+    private final double[] moveXs;
+    private final double[] moveYs;
+    private final double[] attackXs;
+    private final double[] attackYs;
+    private final CandidateBuffer candidates = new CandidateBuffer();
     private Map<IntPoint, BuildingMark> buildingMarks;
     private int friendlyWizards = 1;
     private int enemyWizards = 0;
     private int enemyFetish = 0;
     private List<BuildingMark> marksToCheck;
     private Map<IntPoint, Building> enemyBuildings;
-    private DamageCostComparator damageCostComparator = new DamageCostComparator();
-    private MoveCostComparator moveCostComparator = new MoveCostComparator();
     private AttackInterestCostComparator attackInterestCostComparator = new AttackInterestCostComparator();
     private boolean fireBall = false;
-    static int ANGLES_FACTOR = 36;
+    private UnitBuckets buckets;
+    private ThreatMap threats;
+    private ThreatKernels threatKernels;
+    private FacingCone staffCone;
+    private double selfFacingX;
+    private double selfFacingY;
+    private final ObstacleTree obstacles;
+    private final List<CircularUnit> obstacleUnits = new ArrayList<>();
+    private final UnitMath math;
+    /**
+     * Default number of directions candidate points are placed in around the wizard.
+     */
+    static final int DEFAULT_DIRECTION_COUNT = 36;
     static double MOVE_RADIUS = 50.0;
     static double ATTACK_RADIUS = 4.0;
-    static String NEUTRAL_UNITS = "NEUTRAL_UNITS";
-    static String FRIENDLY_WIZARDS = "FRIENDLY_WIZARDS";
-    static String ENEMIES = "ENEMIES";
-    static String ENEMY_WIZARDS = "ENEMY_WIZARDS";
-    static String FRIENDLY_MINIONS = "FRIENDLY_MINIONS";
-    static String ENEMY_MINIONS = "ENEMY_MINIONS";
-    static String FRIENDLY_BUILDINGS = "FRIENDLY_BUILDINGS";
-    static String ENEMY_BUILDINGS = "ENEMY_BUILDINGS";
-    static String TREES = "TREES";
-
-    private double[] getAngles() {
-        double[] angles = new double[ANGLES_FACTOR];
-        double sector = StrictMath.PI * 2.0 / 36.0d;
-        for (int i = 0; i < ANGLES_FACTOR; i++) {
-            angles[i] = sector * i;
-        }
-        return angles;
+    /**
+     * Buckets checked for collisions; buildings are checked together with trees as obstacles.
+     */
+    private static final UnitBuckets.Kind[] COLLIDING_BUCKETS = {
+            UnitBuckets.Kind.NEUTRAL_UNITS, UnitBuckets.Kind.ENEMY_MINIONS, UnitBuckets.Kind.ENEMY_WIZARDS,
+            UnitBuckets.Kind.FRIENDLY_MINIONS, UnitBuckets.Kind.FRIENDLY_WIZARDS
+    };
+
+    public MyStrategy() {
+        this(UnitMath.STRICT, DEFAULT_DIRECTION_COUNT);
+    }
+
+    /**
+     * @param math           distance and angle primitives, {@link UnitMath#STRICT} to replay games bit-exactly
+     * @param directionCount number of directions candidate points are placed in around the wizard, e.g. 36, 72 or 144
+     */
+    MyStrategy(UnitMath math, int directionCount) {
+        this.math = math;
+        obstacles = new ObstacleTree(math);
+        directions = new DirectionTable(directionCount);
+        moveXs = new double[directionCount];
+        moveYs = new double[directionCount];
+        attackXs = new double[directionCount];
+        attackYs = new double[directionCount];
     }
 
     private void getEnemyBuildingsMarks(World world) {
-        Building[] buildingsToMirror = world.getBuildings();
         Map<IntPoint, BuildingMark> buildingMarks = new HashMap<>();
-        for (Building b : buildingsToMirror) {
+        for (int i = 0; i < world.getBuildingCount(); i++) {
+            Building b = world.getBuilding(i);
             IntPoint point = new IntPoint((int) Math.round(4000 - b.getX()), (int) Math.round(4000 - b.getY()));
             Point2D point2D = new Point2D(4000 - b.getX(), 4000 - b.getY());
             BuildingType type = b.getType();
@@ -80,271 +100,263 @@ public final class MyStrategy implements Strategy {
         this.buildingMarks = buildingMarks;
     }
 
-    private Point2D getPotentialPositionForUnit(LivingUnit unit) {
-        Point2D result = null;
-        double speedX = unit.getSpeedX();
-        double speedY = unit.getSpeedY();
-        if (speedX != 0.0 || speedY != 0.0) {
-            result = new Point2D(unit.getX() + speedX, unit.getY() + speedY);
-        }
-        return result;
+    private double[] getSpeedForStrafe(double x, double y) {
+        double moveSpeed = 0.0;
+        double strafeSpeed = 0.0;
+        double dx = x - self.getX();
+        double dy = y - self.getY();
+        double distance = math.hypot(dx, dy);
+        if (distance == 0.0D) {
+            // same as getAngleTo: a zero vector points along the x axis
+            dx = 1.0D;
+            dy = 0.0D;
+            distance = 1.0D;
+        }
+        double moveFactor = (dx * selfFacingX + dy * selfFacingY) / distance;
+        double strafeFactor = (dy * selfFacingX - dx * selfFacingY) / distance;
+        moveSpeed = game.getWizardForwardSpeed() * moveFactor;
+        strafeSpeed = game.getWizardStrafeSpeed() * strafeFactor;
+        return new double[]{moveSpeed, strafeSpeed};
     }
 
-    private List<Point2D> getNextPoints(Point2D point, double radius) {
-        List<Point2D> points = new ArrayList<>(ANGLES_FACTOR);
-        int i = 0;
-        for (double angle : angles) {
-            double x = StrictMath.cos(angle) * radius;
-            double y = StrictMath.sin(angle) * radius;
-            Point2D point2d = new Point2D(point.x + x, point.y + y);
-            if (point2d.isValid()) {
-                points.add(point2d);
-            } else {
-                points.add(null);
-            }
+    private void updateObstacles() {
+        WorldDelta delta = world.getDelta();
+        if (delta != null && delta.isTreeArrayReused() && delta.isBuildingArrayReused()
+                && obstacles.getUnitCount() > 0) {
+            return;
         }
-        return points;
-    }
-
-    private List<Point2D> getNextMovePoints(Point2D point2D) {
-        return getNextPoints(point2D, MOVE_RADIUS);
+        WorldColumns columns = world.getColumns();
+        if (columns != null) {
+            obstacles.update(columns.getTrees(), columns.getBuildings());
+            return;
+        }
+        obstacleUnits.clear();
+        world.forEachTree(obstacleUnits::add);
+        world.forEachBuilding(obstacleUnits::add);
+        obstacles.update(obstacleUnits);
     }
 
-    private List<Point2D> getNextAttackPoints(Point2D point2D) {
-        return getNextPoints(point2D, ATTACK_RADIUS);
+    private boolean unitOverlapsWithSelf(int direction, UnitGrid grid) {
+        return unitOverlapsWithSelf(moveXs[direction], moveYs[direction], grid)
+                || unitOverlapsWithSelf(attackXs[direction], attackYs[direction], grid);
     }
 
-    private double[] getSpeedForStrafe(double obstacleAngle) {
-        double moveSpeed = 0.0;
-        double strafeSpeed = 0.0;
-        double moveFactor = StrictMath.cos(obstacleAngle);
-        double strafeFactor = StrictMath.sin(obstacleAngle);
-        moveSpeed = game.getWizardForwardSpeed() * moveFactor;
-        strafeSpeed = game.getWizardStrafeSpeed() * strafeFactor;
-        return new double[]{moveSpeed, strafeSpeed};
+    private boolean unitOverlapsWithSelf(double x, double y, UnitGrid grid) {
+        int count = grid.queryCircle(x, y, self.getRadius() + grid.getMaxRadius() + GRID_EPSILON);
+        for (int i = 0; i < count; i++) {
+            LivingUnit unit = grid.getUnit(grid.getResult(i));
+            if (unit.isWithin(x, y, self.getRadius() + unit.getRadius())) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean unitOverlapsWithSelf(Point2D point, Point2D attackPoint, List<LivingUnit> units) {
-        for (LivingUnit unit : units) {
-            double overlapRadius = self.getRadius() + unit.getRadius();
-            if (point.getDistanceTo(unit) <= overlapRadius || attackPoint.getDistanceTo(unit) <= overlapRadius) {
+    private boolean isVisibleToAny(IntPoint point, UnitGrid grid, double visionRange) {
+        int count = grid.queryCircle(point.x, point.y, visionRange + GRID_EPSILON);
+        for (int i = 0; i < count; i++) {
+            if (getDistanceTo(point.x, point.y, grid.getUnit(grid.getResult(i))) < visionRange) {
                 return true;
             }
         }
         return false;
     }
 
-    private double getWizardsDamageForPoint(Point2D point2D, List<LivingUnit> wizards, Danger danger) {
+    private double getWizardsDamageForPoint(double x, double y, UnitGrid wizards, Danger danger) {
         double potentialWizardDamage = 0.0;
-        for (LivingUnit w : wizards) {
-            potentialWizardDamage += getWizardDamageForPoint(point2D, w, danger);
+        // units beyond attack radius + speed can't reach the point
+        double queryRadius = threatKernels.getWizardKernel(danger).getRange() + wizards.getMaxSpeed() + GRID_EPSILON;
+        int count = wizards.queryCircle(x, y, queryRadius);
+        for (int i = 0; i < count; i++) {
+            int unitIndex = wizards.getResult(i);
+            potentialWizardDamage += getWizardDamageForPoint(x, y, wizards.getUnit(unitIndex),
+                    wizards.getFacingX(unitIndex), wizards.getFacingY(unitIndex), danger);
         }
         return potentialWizardDamage;
     }
 
-    private double getWizardDamageForPoint(Point2D point2D, LivingUnit w, Danger danger) {
-        double staffDamage = game.getStaffDamage();
-        double staffRange = game.getWizardCastRange();
-        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
-        dangerRatio = danger == Danger.LOW ? 0.8 : dangerRatio;
-        double attackRadius = (staffRange + self.getRadius()) * dangerRatio;
-        double attackSector = danger == Danger.HIGH ? game.getStaffSector() * 10 : game.getStaffSector();
+    private double getWizardDamageForPoint(double x, double y, LivingUnit w, double facingX, double facingY,
+                                           Danger danger) {
         Wizard wizard = (Wizard) w;
-        double distance = point2D.getDistanceTo(w);
-        if (distance > attackRadius * 2.0) {
-            return 0.0;
-        }
-        Point2D potentialPosition = getPotentialPositionForUnit(w);
-        double potentialPositionDistance = Double.MAX_VALUE;
-        if (potentialPosition != null) {
-            potentialPositionDistance = point2D.getDistanceTo(potentialPosition);
-        }
-        if (wizard.getRemainingActionCooldownTicks() > 40) {
-            return 0.0;
-        }
-        double angle = w.getAngleTo(point2D.x, point2D.y);
-        if (distance <= attackRadius || potentialPositionDistance <= attackRadius) {
-            if (StrictMath.abs(angle) < game.getStaffSector() / 2.0 ||
-                    StrictMath.abs(angle) - game.getWizardMaxTurnAngle() < attackSector) {
-                return staffDamage;
-            }
-        }
-
-        return 0.0;
+        return threatKernels.getWizardKernel(danger).getDamage(wizard, wizard.getRemainingActionCooldownTicks(),
+                facingX, facingY, x, y);
     }
 
-    private double getMinionsDamageForPoint(Point2D point2D, List<LivingUnit> minions, Danger danger) {
+    private double getMinionsDamageForPoint(double x, double y, UnitGrid minions, Danger danger) {
         double potentialMinionDamage = 0.0;
-        for (LivingUnit lu : minions) {
-            potentialMinionDamage += getMinionDamageForPoint(point2D, lu, danger);
+        double queryRadius = StrictMath.max(
+                threatKernels.getMinionKernel(danger, MinionType.FETISH_BLOWDART).getRange(),
+                threatKernels.getMinionKernel(danger, MinionType.ORC_WOODCUTTER).getRange()
+        ) + minions.getMaxSpeed() + GRID_EPSILON;
+        int count = minions.queryCircle(x, y, queryRadius);
+        for (int i = 0; i < count; i++) {
+            int unitIndex = minions.getResult(i);
+            potentialMinionDamage += getMinionDamageForPoint(x, y, minions.getUnit(unitIndex),
+                    minions.getFacingX(unitIndex), minions.getFacingY(unitIndex), danger);
         }
         return potentialMinionDamage;
     }
 
-    private double getMinionDamageForPoint(Point2D point2D, LivingUnit m, Danger danger) {
-        double dartDamage = game.getDartDirectDamage();
-        double dartRange = game.getFetishBlowdartAttackRange() + game.getMinionRadius() + self.getRadius();
-        double dartSector = danger == Danger.HIGH ? game.getFetishBlowdartAttackSector() * 10 :
-                game.getFetishBlowdartAttackSector();
-        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
-        double dartAttackRadius = dartRange * dangerRatio;
-        double woodCutterDamage = game.getOrcWoodcutterDamage();
-        double woodCutterRange = game.getOrcWoodcutterAttackRange();
-        double woodCutterAttackRadius = (woodCutterRange + 150) * dangerRatio;
-        double woodCutterSector = danger == Danger.HIGH ? game.getOrcWoodcutterAttackSector() * 10 :
-                game.getOrcWoodcutterAttackSector();
-
+    private double getMinionDamageForPoint(double x, double y, LivingUnit m, double facingX, double facingY,
+                                           Danger danger) {
         Minion minion = (Minion) m;
-        Point2D potentialPosition = getPotentialPositionForUnit(m);
-        double distance = point2D.getDistanceTo(minion);
-        double potentialPositionDistance = Double.MAX_VALUE;
-        if (potentialPosition != null) {
-            potentialPositionDistance = point2D.getDistanceTo(potentialPosition);
-        }
-        double angle = minion.getAngleTo(point2D.x, point2D.y);
-        if (minion.getType() == MinionType.FETISH_BLOWDART) {
-            if (minion.getRemainingActionCooldownTicks() > 10) {
-                return 0.0;
-            }
-            if (distance <= dartAttackRadius || potentialPositionDistance <= dartAttackRadius) {
-                if (StrictMath.abs(angle) < game.getFetishBlowdartAttackSector() / 2.0D ||
-                        StrictMath.abs(angle) - game.getFetishBlowdartAttackSector() < dartSector) {
-                    return dartDamage;
-                }
-            }
-        } else {
-            if (distance <= woodCutterAttackRadius || potentialPositionDistance <= woodCutterAttackRadius) {
-                if (StrictMath.abs(angle) < game.getOrcWoodcutterAttackSector() / 2.0D ||
-                        StrictMath.abs(angle) - game.getOrcWoodcutterAttackSector() < woodCutterSector) {
-                    return woodCutterDamage;
-                }
-            }
-        }
-
-        return 0.0;
+        return threatKernels.getMinionKernel(danger, minion.getType()).getDamage(
+                minion, minion.getRemainingActionCooldownTicks(), facingX, facingY, x, y
+        );
     }
 
-    private double getBuildingMarksDamageForPoint(Point2D point2D, List<BuildingMark> buildings,
+    private double getBuildingMarksDamageForPoint(double x, double y, List<BuildingMark> buildings,
                                                   Danger danger) {
         double potentialBuildingDamage = 0.0;
         for (BuildingMark lu : buildings) {
-            potentialBuildingDamage += getBuildingMarkDamageForPoint(point2D, lu, danger);
+            Point2D point = lu.getPoint();
+            potentialBuildingDamage += threatKernels.getBuildingMarkKernel(danger, lu.getBuildingType())
+                    .getDamage(point.x, point.y, x, y);
         }
         return potentialBuildingDamage;
     }
 
-    private double getBuildingMarkDamageForPoint(Point2D point2D, BuildingMark b, Danger danger) {
-        double towerDamage = game.getGuardianTowerDamage();
-        double towerRange = game.getGuardianTowerAttackRange();
-        double baseDamage = game.getFactionBaseDamage();
-        double baseRange = game.getFactionBaseAttackRange();
-        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
-        double distance = point2D.getDistanceTo(b);
-        if (b.getBuildingType() == BuildingType.FACTION_BASE) {
-            if (distance <= (game.getFactionBaseRadius() + baseRange) * dangerRatio) {
-                return baseDamage;
-            }
-        } else if (b.getBuildingType() == BuildingType.GUARDIAN_TOWER) {
-            if (distance <= (game.getGuardianTowerRadius() + towerRange) * dangerRatio) {
-                return towerDamage;
-            }
-        }
-        return 0.0;
-    }
-
-    private double getBuildingsDamageForPoint(Point2D point2D, List<LivingUnit> buildings,
+    private double getBuildingsDamageForPoint(double x, double y, UnitGrid buildings,
                                               Danger danger) {
         double potentialBuildingDamage = 0.0;
-        for (LivingUnit lu : buildings) {
-            potentialBuildingDamage += getBuildingDamageForPoint(point2D, lu, danger);
+        double queryRadius = threatKernels.getBuildingKernel(danger, BuildingType.GUARDIAN_TOWER).getRange()
+                + GRID_EPSILON;
+        int count = buildings.queryCircle(x, y, queryRadius);
+        for (int i = 0; i < count; i++) {
+            potentialBuildingDamage += getBuildingDamageForPoint(
+                    x, y, buildings.getUnit(buildings.getResult(i)), danger
+            );
         }
         return potentialBuildingDamage;
     }
 
-    private double getBuildingDamageForPoint(Point2D point2D, LivingUnit b,
+    private double getBuildingDamageForPoint(double x, double y, LivingUnit b,
                                              Danger danger) {
-        double towerDamage = game.getGuardianTowerDamage();
-        double towerRange = game.getGuardianTowerAttackRange();
-        double baseDamage = game.getFactionBaseDamage();
-        double baseRange = game.getFactionBaseAttackRange();
-        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
+        // buildings don't turn: the facing is never looked at for their full-circle kernels
         Building building = (Building) b;
-        double distance = point2D.getDistanceTo(building);
-
-        if (building.getRemainingActionCooldownTicks() > 100 && distance > 460) {
-            return 0.0;
-        }
-
-//        if (building.getType() == BuildingType.FACTION_BASE) {
-//            if (distance <= (game.getFactionBaseRadius() + baseRange) * dangerRatio) {
-//                return baseDamage;
-//            }
-//        } else {
-        if (building.getType() != BuildingType.FACTION_BASE) {
-            if (distance <= (game.getGuardianTowerRadius() + towerRange) * dangerRatio) {
-                return towerDamage;
-            }
-        }
-
-
-        return 0.0;
+        return threatKernels.getBuildingKernel(danger, building.getType())
+                .getDamage(building, building.getRemainingActionCooldownTicks(), 1.0, 0.0, x, y);
     }
 
 
-    private List<Point2D> weightCollisions(List<Point2D> movePoints, List<Point2D> attackPoints,
-                                           Map<String, List<LivingUnit>> objectsMap) {
-        List<Point2D> result = new ArrayList<>();
-        for (int counter = 0; counter < movePoints.size(); counter++) {
-            Point2D point = movePoints.get(counter);
-            Point2D attackPoint = attackPoints.get(counter);
-            if (point == null) {
+    private void weightCollisions() {
+        directions.fillRing(self.getX(), self.getY(), MOVE_RADIUS, moveXs, moveYs);
+        directions.fillRing(self.getX(), self.getY(), ATTACK_RADIUS, attackXs, attackYs);
+        candidates.clear();
+        for (int direction = 0; direction < moveXs.length; direction++) {
+            if (!Point2D.isValid(moveXs[direction], moveYs[direction])) {
                 continue;
             }
-            boolean hasCollisions = false;
-            for (Map.Entry<String, List<LivingUnit>> entry : objectsMap.entrySet()) {
-                //Skipping aggregated enemies list
-                if (entry.getKey().equals(ENEMIES)) {
-                    continue;
+            boolean hasCollisions = obstacles.overlaps(moveXs[direction], moveYs[direction], self.getRadius())
+                    || obstacles.overlaps(attackXs[direction], attackYs[direction], self.getRadius());
+            for (UnitBuckets.Kind kind : COLLIDING_BUCKETS) {
+                if (hasCollisions) {
+                    break;
                 }
-
-                if (unitOverlapsWithSelf(point, attackPoint, entry.getValue())) {
+                if (unitOverlapsWithSelf(direction, buckets.getGrid(kind))) {
                     hasCollisions = true;
                     break;
                 }
             }
             if (!hasCollisions) {
-                result.add(attackPoint);
+                candidates.add(attackXs[direction], attackYs[direction]);
             }
         }
-        return result;
     }
 
-    private void weightFightPoints(List<Point2D> trackPoints, Map<String, List<LivingUnit>> objectsMap,
-                                   Danger danger) {
-        for (Point2D point2D : trackPoints) {
-            for (Map.Entry<String, List<LivingUnit>> objects : objectsMap.entrySet()) {
-                String key = objects.getKey();
-                List<LivingUnit> units = objects.getValue();
-                if (ENEMY_WIZARDS.equals(key)) {
-                    point2D.appendToDamageInterest(getWizardsDamageForPoint(point2D, units, danger));
-
-                } else if (ENEMY_MINIONS.equals(key)) {
-                    point2D.appendToDamageInterest(getMinionsDamageForPoint(point2D, units, danger));
-                } else if (ENEMY_BUILDINGS.equals(key)) {
-                    point2D.appendToDamageInterest(getBuildingsDamageForPoint(point2D, units, danger));
-                }
-
+    private void weightFightPoints(Danger danger) {
+        UnitGrid enemyBuildings = buckets.getGrid(UnitBuckets.Kind.ENEMY_BUILDINGS);
+        UnitGrid enemyMinions = buckets.getGrid(UnitBuckets.Kind.ENEMY_MINIONS);
+        UnitGrid enemyWizards = buckets.getGrid(UnitBuckets.Kind.ENEMY_WIZARDS);
+        for (int rank = 0; rank < candidates.size(); rank++) {
+            int candidate = candidates.get(rank);
+            double x = candidates.getX(candidate);
+            double y = candidates.getY(candidate);
+            if (threats.isOutOfReach(x, y)) {
+                // out of reach of every threat: each estimate below would be zero
+                continue;
             }
+            candidates.appendToDamageInterest(candidate, getBuildingsDamageForPoint(x, y, enemyBuildings, danger));
+            candidates.appendToDamageInterest(candidate, getMinionsDamageForPoint(x, y, enemyMinions, danger));
+            candidates.appendToDamageInterest(candidate, getWizardsDamageForPoint(x, y, enemyWizards, danger));
             if (danger != Danger.LOW) {
-                point2D.appendToDamageInterest(getBuildingMarksDamageForPoint(point2D, marksToCheck, danger));
+                candidates.appendToDamageInterest(
+                        candidate, getBuildingMarksDamageForPoint(x, y, marksToCheck, danger)
+                );
+            }
+        }
+
+    }
+
+    /**
+     * Lists a conservative footprint of every threat {@code weightFightPoints} accounts for: the reach of its kernel,
+     * which is the full attack circle widened by the distance the unit covers in a tick. Units that can't attack soon
+     * and building types that are ignored leave no footprint. Buildings and marks go to the static layer in a stable
+     * order, so it is only redrawn when one of them changes.
+     */
+    private void updateThreatMap(Danger danger) {
+        threats.beginTick();
+
+        ThreatKernel wizardKernel = threatKernels.getWizardKernel(danger);
+        for (LivingUnit w : buckets.get(UnitBuckets.Kind.ENEMY_WIZARDS)) {
+            double reach = wizardKernel.getReach(((Wizard) w).getRemainingActionCooldownTicks(), getSpeed(w));
+            threats.putDynamicCircle(w.getId(), w.getX(), w.getY(), reach, wizardKernel.getDamage());
+        }
+
+        for (LivingUnit m : buckets.get(UnitBuckets.Kind.ENEMY_MINIONS)) {
+            Minion minion = (Minion) m;
+            ThreatKernel kernel = threatKernels.getMinionKernel(danger, minion.getType());
+            double reach = kernel.getReach(minion.getRemainingActionCooldownTicks(), getSpeed(m));
+            threats.putDynamicCircle(m.getId(), m.getX(), m.getY(), reach, kernel.getDamage());
+        }
+
+        for (Faction faction : FACTIONS) {
+            if (faction == self.getFaction()) {
+                continue;
+            }
+            for (int i = 0; i < world.getBuildingCount(faction); i++) {
+                Building building = world.getBuilding(faction, i);
+                ThreatKernel kernel = threatKernels.getBuildingKernel(danger, building.getType());
+                double reach = kernel.getReach(building.getRemainingActionCooldownTicks(), 0.0);
+                threats.addStaticCircle(building.getX(), building.getY(), reach, kernel.getDamage());
+            }
+        }
+
+        if (danger != Danger.LOW) {
+            for (BuildingMark mark : marksToCheck) {
+                Point2D point = mark.getPoint();
+                ThreatKernel kernel = threatKernels.getBuildingMarkKernel(danger, mark.getBuildingType());
+                threats.addStaticCircle(point.x, point.y, kernel.getReach(0, 0.0), kernel.getDamage());
             }
         }
+        threats.endTick();
+    }
+
+    private double getSpeed(Unit unit) {
+        return math.hypot(unit.getSpeedX(), unit.getSpeedY());
+    }
+
+    private double getDistanceTo(double x, double y, Unit unit) {
+        return math.hypot(x - unit.getX(), y - unit.getY());
+    }
+
+    private double getDistanceTo(Point2D point, double x, double y) {
+        return math.hypot(point.x - x, point.y - y);
+    }
+
+    private double getDistanceTo(Point2D point, Point2D other) {
+        return getDistanceTo(point, other.x, other.y);
+    }
 
+    private double getDistanceTo(Point2D point, Unit unit) {
+        return getDistanceTo(point.x, point.y, unit);
     }
 
-    private void weightDistanceToWayPoint(List<Point2D> trackPoints, Point2D wayPoint) {
-        for (Point2D point2D : trackPoints) {
-            point2D.appendToMoveInterest(point2D.getDistanceTo(wayPoint));
+    private void weightDistanceToWayPoint(Point2D wayPoint) {
+        for (int rank = 0; rank < candidates.size(); rank++) {
+            int candidate = candidates.get(rank);
+            candidates.appendToMoveInterest(candidate, getDistanceTo(wayPoint, candidates.getX(candidate),
+                    candidates.getY(candidate)));
         }
     }
 
@@ -368,37 +380,20 @@ public final class MyStrategy implements Strategy {
         }
     }
 
-    private void cleanBuildingMarks(Map<String, List<LivingUnit>> objectsMap) {
+    private void cleanBuildingMarks() {
         List<IntPoint> destroyedBuildings = new ArrayList<>();
         Set<IntPoint> existingBuildings = new HashSet<>();
         marksToCheck = new ArrayList<>();
         for (Map.Entry<IntPoint, BuildingMark> buildingMarkEntry : buildingMarks.entrySet()) {
-            for (Map.Entry<String, List<LivingUnit>> entry : objectsMap.entrySet()) {
-                String key = entry.getKey();
-                List<LivingUnit> units = entry.getValue();
-                boolean stopSearching = false;
-                if (FRIENDLY_MINIONS.equals(key) || FRIENDLY_WIZARDS.equals(key)) {
-                    double visionRange;
-                    if (FRIENDLY_MINIONS.equals(key)) {
-                        visionRange = game.getMinionVisionRange();
-                    } else {
-                        visionRange = game.getWizardVisionRange();
-                    }
-                    for (LivingUnit unit : units) {
-                        if (buildingMarkEntry.getKey().getDistanceTo(unit) < visionRange) {
-                            if (!enemyBuildings.containsKey(buildingMarkEntry.getKey())) {
-                                destroyedBuildings.add(buildingMarkEntry.getKey());
-                            } else {
-                                existingBuildings.add(buildingMarkEntry.getKey());
-                            }
-                            stopSearching = true;
-                            break;
-                        }
-
-                    }
-                }
-                if (stopSearching) {
-                    break;
+            IntPoint markPoint = buildingMarkEntry.getKey();
+            if (isVisibleToAny(markPoint, buckets.getGrid(UnitBuckets.Kind.FRIENDLY_MINIONS),
+                    game.getMinionVisionRange())
+                    || isVisibleToAny(markPoint, buckets.getGrid(UnitBuckets.Kind.FRIENDLY_WIZARDS),
+                    game.getWizardVisionRange())) {
+                if (!enemyBuildings.containsKey(markPoint)) {
+                    destroyedBuildings.add(markPoint);
+                } else {
+                    existingBuildings.add(markPoint);
                 }
             }
         }
@@ -438,12 +433,11 @@ public final class MyStrategy implements Strategy {
         if (self.getLife() < previousHealth) {
             tickWithDamage = world.getTickIndex();
         }
-        List<Point2D> movePoints = getNextMovePoints(new Point2D(self));
-        List<Point2D> attackPoints = getNextAttackPoints(new Point2D(self));
-        Map<String, List<LivingUnit>> nearest = getNearest();
-        cleanBuildingMarks(nearest);
+        fillBuckets();
+        updateObstacles();
+        cleanBuildingMarks();
         //Filter potential collisions here
-        List<Point2D> trackPoints = weightCollisions(movePoints, attackPoints, nearest);
+        weightCollisions();
 
         Point2D nextWP = getNextWaypoint();
         Point2D prevWP = getPreviousWaypoint();
@@ -453,39 +447,39 @@ public final class MyStrategy implements Strategy {
         } else {
             danger = getDangerNoSkills();
         }
+        updateThreatMap(danger);
         if (danger == Danger.HIGH) {
-            weightFightPoints(trackPoints, nearest, danger);
-            trackPoints.sort(damageCostComparator);
-            if (!trackPoints.isEmpty() &&
-                    trackPoints.get(0).getDamageInterest() > 0 &&
+            weightFightPoints(danger);
+            candidates.sortByDamageInterest();
+            if (!candidates.isEmpty() &&
+                    candidates.getDamageInterest(candidates.get(0)) > 0 &&
                     tickWithDamage + 75 >= world.getTickIndex()) {
-                weightDistanceToWayPoint(trackPoints, prevWP);
-                trackPoints.sort(moveCostComparator);
-                goToPoint(trackPoints, null, false);
+                weightDistanceToWayPoint(prevWP);
+                candidates.sortByMoveInterest();
+                goToPoint(null, false);
                 previousLevel = self.getLevel();
                 previousHealth = self.getLife();
                 return;
             }
         }
 
-        List<LivingUnit> enemies = nearest.get(ENEMIES);
+        List<LivingUnit> enemies = buckets.get(UnitBuckets.Kind.ENEMIES);
         LivingUnit closestEnemy = enemies.size() > 0 ? enemies.get(0) : null;
-        Point2D currentPosition = new Point2D(self);
-        trackPoints.add(currentPosition);
-        weightFightPoints(trackPoints, nearest, danger);
-        trackPoints.sort(damageCostComparator);
-
-        Point2D target = null;
-        if (!trackPoints.isEmpty()) {
-            target = trackPoints.get(0);
+        int currentPosition = candidates.add(self.getX(), self.getY());
+        weightFightPoints(danger);
+        candidates.sortByDamageInterest();
+
+        int target = -1;
+        if (!candidates.isEmpty()) {
+            target = candidates.get(0);
         }
         //Most safe point is still unsafe
 
-        if (target != null && target.getDamageInterest() > 0) {
-            weightDistanceToWayPoint(trackPoints, prevWP);
-            trackPoints.sort(moveCostComparator);
-            target = trackPoints.get(0);
-            Enemy enemy = getTarget(target, enemies, danger, false);
+        if (target >= 0 && candidates.getDamageInterest(target) > 0) {
+            weightDistanceToWayPoint(prevWP);
+            candidates.sortByMoveInterest();
+            target = candidates.get(0);
+            Enemy enemy = getTarget(target, buckets.getGrid(UnitBuckets.Kind.ENEMIES), danger, false);
             if (enemy != null) {
                 closestEnemy = enemy.getUnit();
             }
@@ -494,26 +488,19 @@ public final class MyStrategy implements Strategy {
             previousHealth = self.getLife();
             return;
         }
-        if (closestEnemy != null && (target == null || self.getDistanceTo(closestEnemy) < self.getCastRange())) {
-            target = null;
-            Enemy currentEnemy = getTarget(currentPosition, enemies, danger, false);
-            List<Point2D> safePoints = new ArrayList<>();
-            for (Point2D p : trackPoints) {
-                if (p.getDamageInterest() == 0) {
-                    safePoints.add(p);
-                }
-            }
-            if (!safePoints.isEmpty()) {
-                trackPoints = safePoints;
-            }
-            weightDistanceToWayPoint(trackPoints, nextWP);
-            trackPoints.sort(moveCostComparator);
-            Point2D nextPoint = trackPoints.get(0);
-            Enemy nextEnemy = getTarget(nextPoint, enemies, danger, true);
+        if (closestEnemy != null && (target < 0 || math.getDistanceTo(self, closestEnemy) < self.getCastRange())) {
+            target = -1;
+            Enemy currentEnemy = getTarget(currentPosition, buckets.getGrid(UnitBuckets.Kind.ENEMIES), danger, false);
+            boolean hasSafePoints = candidates.retainZeroDamageInterest() > 0;
+            weightDistanceToWayPoint(nextWP);
+            candidates.sortByMoveInterest();
+            int nextPoint = candidates.get(0);
+            Enemy nextEnemy = getTarget(nextPoint, buckets.getGrid(UnitBuckets.Kind.ENEMIES), danger, true);
             double nextEnemyDistance;
-            nextEnemyDistance = currentPosition.getDistanceTo(nextEnemy.getUnit());
+            nextEnemyDistance = math.getDistanceTo(self, nextEnemy.getUnit());
             LivingUnit targetEnemy = currentEnemy.getUnit();
-            if (!safePoints.isEmpty() && nextPoint.getDamageInterest() <= currentPosition.getDamageInterest()) {
+            if (hasSafePoints
+                    && candidates.getDamageInterest(nextPoint) <= candidates.getDamageInterest(currentPosition)) {
 //                    && !(targetEnemy instanceof Building)) {
                 target = nextPoint;
             }
@@ -524,18 +511,17 @@ public final class MyStrategy implements Strategy {
 
             goTo(target, targetEnemy, false);
         } else {
-            weightDistanceToWayPoint(trackPoints, nextWP);
-            trackPoints.sort(moveCostComparator);
-            goToPoint(trackPoints, null, false);
+            weightDistanceToWayPoint(nextWP);
+            candidates.sortByMoveInterest();
+            goToPoint(null, false);
         }
         previousLevel = self.getLevel();
         previousHealth = self.getLife();
     }
 
-    private void goToPoint(List<Point2D> trackPoints, LivingUnit enemy, boolean forceFrosBolt) {
-        if (trackPoints.size() > 0) {
-            Point2D target = trackPoints.get(0);
-            goTo(target, enemy, forceFrosBolt);
+    private void goToPoint(LivingUnit enemy, boolean forceFrosBolt) {
+        if (!candidates.isEmpty()) {
+            goTo(candidates.get(0), enemy, forceFrosBolt);
         } else {
             //TODO(tdurakov): HOW???
         }
@@ -544,14 +530,24 @@ public final class MyStrategy implements Strategy {
     }
 
 
-    public Enemy getTarget(Point2D target, List<LivingUnit> enemies, Danger danger, boolean checkPotential) {
+    /**
+     * @param target index of the candidate point to attack from
+     */
+    public Enemy getTarget(int target, UnitGrid enemies, Danger danger, boolean checkPotential) {
+        double targetX = candidates.getX(target);
+        double targetY = candidates.getY(target);
         Enemy targetEnemy = null;
         List<Enemy> enemiesToAtack = new ArrayList<>();
         double currentRange = checkPotential ? self.getVisionRange() + 500 : self.getCastRange();
-        for (LivingUnit lu : enemies) {
-            double distanceToSelf = target.getDistanceTo(lu);
-            if (distanceToSelf <= currentRange + lu.getRadius()) {
-                Enemy e = new Enemy(game, lu, target, danger);
+        int count = enemies.queryCircle(targetX, targetY, currentRange + enemies.getMaxRadius() + GRID_EPSILON);
+        for (int i = 0; i < count; i++) {
+            // enemies are sorted by distance to self: stop at the first one out of range, as a full scan would
+            if (enemies.getResult(i) != i) {
+                break;
+            }
+            LivingUnit lu = enemies.getUnit(i);
+            if (lu.isWithin(targetX, targetY, currentRange + lu.getRadius())) {
+                Enemy e = new Enemy(game, lu, enemies.getFacingX(i), enemies.getFacingY(i), targetX, targetY, danger);
                 enemiesToAtack.add(e);
             } else {
                 break;
@@ -577,6 +573,10 @@ public final class MyStrategy implements Strategy {
             previousHealth = self.getLife();
             tickWithDamage = -10;
             double mapSize = game.getMapSize();
+            buckets = new UnitBuckets(mapSize, mapSize, GRID_CELL_SIZE, math);
+            threats = new ThreatMap(mapSize, mapSize, THREAT_CELL_SIZE);
+            threatKernels = new ThreatKernels(game);
+            staffCone = new FacingCone(game.getStaffSector() / 2.0D);
 
             waypointsByLane.put(LaneType.MIDDLE, new Point2D[]{
                     new Point2D(100.0D, mapSize - 100.0D),
@@ -644,7 +644,7 @@ public final class MyStrategy implements Strategy {
             /*Point2D lastWaypoint = waypoints[waypoints.length - 1];
 
             Preconditions.checkState(ArrayUtils.isSorted(waypoints, (waypointA, waypointB) -> Double.compare(
-                    waypointB.getDistanceTo(lastWaypoint), waypointA.getDistanceTo(lastWaypoint)
+                    getDistanceTo(waypointB, lastWaypoint), getDistanceTo(waypointA, lastWaypoint)
             )));*/
         }
     }
@@ -657,6 +657,8 @@ public final class MyStrategy implements Strategy {
         this.world = world;
         this.game = game;
         this.move = move;
+        this.selfFacingX = StrictMath.cos(self.getAngle());
+        this.selfFacingY = StrictMath.sin(self.getAngle());
     }
 
     /**
@@ -674,11 +676,11 @@ public final class MyStrategy implements Strategy {
         for (int waypointIndex = 0; waypointIndex < lastWaypointIndex; ++waypointIndex) {
             Point2D waypoint = waypoints[waypointIndex];
 
-            if (waypoint.getDistanceTo(self) <= WAYPOINT_RADIUS) {
+            if (getDistanceTo(waypoint, self) <= WAYPOINT_RADIUS) {
                 return waypoints[waypointIndex + 1];
             }
 
-            if (lastWaypoint.getDistanceTo(waypoint) < lastWaypoint.getDistanceTo(self)) {
+            if (getDistanceTo(lastWaypoint, waypoint) < getDistanceTo(lastWaypoint, self)) {
                 return waypoint;
             }
         }
@@ -696,11 +698,11 @@ public final class MyStrategy implements Strategy {
         for (int waypointIndex = waypoints.length - 1; waypointIndex > 0; --waypointIndex) {
             Point2D waypoint = waypoints[waypointIndex];
 
-            if (waypoint.getDistanceTo(self) <= WAYPOINT_RADIUS) {
+            if (getDistanceTo(waypoint, self) <= WAYPOINT_RADIUS) {
                 return waypoints[waypointIndex - 1];
             }
 
-            if (firstWaypoint.getDistanceTo(waypoint) < firstWaypoint.getDistanceTo(self)) {
+            if (getDistanceTo(firstWaypoint, waypoint) < getDistanceTo(firstWaypoint, self)) {
                 return waypoint;
             }
         }
@@ -710,31 +712,34 @@ public final class MyStrategy implements Strategy {
 
     /**
      * Простейший способ перемещения волшебника.
+     *
+     * @param point индекс точки-кандидата, к которой нужно двигаться, или {@code -1}, если двигаться не нужно.
      */
-    private void goTo(Point2D point, LivingUnit target, boolean forceFireBall) {
+    private void goTo(int point, LivingUnit target, boolean forceFireBall) {
         double attackAngle;
         if (target != null) {
-            attackAngle = self.getAngleTo(target);
-            if (StrictMath.abs(attackAngle) < game.getStaffSector() / 2.0D) {
+            attackAngle = math.getAngleTo(self, target);
+            if (staffCone.contains(target.getX() - self.getX(), target.getY() - self.getY(), selfFacingX, selfFacingY)) {
                 if (fireBall
-                        && self.getRemainingCooldownTicksByAction()[4] == 0
+                        && self.getRemainingCooldownTicks(ActionType.FIREBALL) == 0
                         && self.getMana() >= game.getFireballManacost()
                         && (target instanceof Wizard || target instanceof Building || (forceFireBall
                         && target.getLife() > game.getMagicMissileDirectDamage()))) {
                     move.setAction(ActionType.FIREBALL);
-                } else if (self.getRemainingCooldownTicksByAction()[2] == 0) {
+                } else if (self.getRemainingCooldownTicks(ActionType.MAGIC_MISSILE) == 0) {
                     move.setAction(ActionType.MAGIC_MISSILE);
                 }
                 move.setCastAngle(attackAngle);
-                move.setMinCastDistance(point.getDistanceTo(target) - target.getRadius() + game.getMagicMissileRadius());
+                double distance = math.hypot(candidates.getX(point) - target.getX(),
+                        candidates.getY(point) - target.getY());
+                move.setMinCastDistance(distance - target.getRadius() + game.getMagicMissileRadius());
             }
         } else {
-            attackAngle = self.getAngleTo(point.getX(), point.getY());
+            attackAngle = math.getAngleTo(self, candidates.getX(point), candidates.getY(point));
         }
         move.setTurn(attackAngle);
-        if (point != null) {
-            double moveAngle = self.getAngleTo(point.x, point.y);
-            double[] speed = getSpeedForStrafe(moveAngle);
+        if (point >= 0) {
+            double[] speed = getSpeedForStrafe(candidates.getX(point), candidates.getY(point));
             move.setSpeed(speed[0]);
             move.setStrafeSpeed(speed[1]);
         }
@@ -744,27 +749,6 @@ public final class MyStrategy implements Strategy {
      * Находим ближайшую цель для атаки, независимо от её типа и других характеристик.
      */
 
-    public static final class DistanceToUnitComparator implements Comparator<LivingUnit> {
-        Wizard self;
-
-        DistanceToUnitComparator(Wizard self) {
-            this.self = self;
-        }
-
-        @Override
-        public int compare(LivingUnit o1, LivingUnit o2) {
-            double o1Distance = self.getDistanceTo(o1);
-            double o2Distance = self.getDistanceTo(o2);
-            if (o1Distance < o2Distance) {
-                return -1;
-            }
-            if (o1Distance > o2Distance) {
-                return 1;
-            }
-            return 0;
-        }
-    }
-
     public static final class AttackInterestCostComparator implements Comparator<Enemy> {
 
         @Override
@@ -780,118 +764,68 @@ public final class MyStrategy implements Strategy {
     }
 
 
-    public static final class MoveCostComparator implements Comparator<Point2D> {
-
-        @Override
-        public int compare(Point2D o1, Point2D o2) {
-            if (o1.getMoveInterest() < o2.getMoveInterest()) {
-                return -1;
-            }
-            if (o1.getMoveInterest() > o2.getMoveInterest()) {
-                return 1;
-            }
-            return 0;
-        }
-    }
-
-    public static final class DamageCostComparator implements Comparator<Point2D> {
-
-        @Override
-        public int compare(Point2D o1, Point2D o2) {
-            if (o1.getDamageInterest() < o2.getDamageInterest()) {
-                return -1;
-            }
-            if (o1.getDamageInterest() > o2.getDamageInterest()) {
-                return 1;
-            }
-            return 0;
-        }
-    }
-
-    private Map<String, List<LivingUnit>> getNearest() {
-        Map<String, List<LivingUnit>> nearestMap = new HashMap<>();
-        DistanceToUnitComparator cmp = new DistanceToUnitComparator(self);
-        //TREES
-        List<LivingUnit> trees = new ArrayList<>(Arrays.asList(world.getTrees()));
-        trees.sort(cmp);
-        nearestMap.put(TREES, trees);
-
+    private void fillBuckets() {
+        buckets.clear();
         //WIZARDS
-        List<LivingUnit> friendlyWizards = new ArrayList<>();
-        List<LivingUnit> enemyWizards = new ArrayList<>();
-        for (Wizard w : world.getWizards()) {
-            if (w.getId() == self.getId()) {
-                continue;
-            }
-            if (self.getFaction() == w.getFaction()) {
-                if (self.getDistanceTo(w) <= self.getVisionRange()) {
-                    this.friendlyWizards++;
+        for (Faction faction : FACTIONS) {
+            boolean friendly = self.getFaction() == faction;
+            for (int i = 0; i < world.getWizardCount(faction); i++) {
+                Wizard w = world.getWizard(faction, i);
+                if (w.getId() == self.getId()) {
+                    continue;
                 }
-                friendlyWizards.add(w);
-            } else {
-                if (self.getDistanceTo(w) <= self.getVisionRange()) {
-                    this.enemyWizards++;
+                if (friendly) {
+                    if (self.isWithin(w, self.getVisionRange())) {
+                        this.friendlyWizards++;
+                    }
+                    buckets.add(UnitBuckets.Kind.FRIENDLY_WIZARDS, w);
+                } else {
+                    if (self.isWithin(w, self.getVisionRange())) {
+                        this.enemyWizards++;
+                    }
+                    buckets.add(UnitBuckets.Kind.ENEMY_WIZARDS, w);
                 }
-                enemyWizards.add(w);
             }
         }
-        friendlyWizards.sort(cmp);
-        enemyWizards.sort(cmp);
-        nearestMap.put(FRIENDLY_WIZARDS, friendlyWizards);
-        nearestMap.put(ENEMY_WIZARDS, enemyWizards);
 
         //MINIONS
-        List<LivingUnit> friendlyMinions = new ArrayList<>();
-        List<LivingUnit> enemyMinions = new ArrayList<>();
-        List<LivingUnit> neutralMinions = new ArrayList<>();
-        for (Minion m : world.getMinions()) {
-            if (self.getFaction() == m.getFaction()) {
-                friendlyMinions.add(m);
-            } else if (m.getFaction() == Faction.NEUTRAL) {
-                if (m.getRemainingActionCooldownTicks() > 0 || m.getSpeedX() != 0 || m.getSpeedY() != 0) {
-                    enemyMinions.add(m);
+        for (Faction faction : FACTIONS) {
+            for (int i = 0; i < world.getMinionCount(faction); i++) {
+                Minion m = world.getMinion(faction, i);
+                if (self.getFaction() == faction) {
+                    buckets.add(UnitBuckets.Kind.FRIENDLY_MINIONS, m);
+                } else if (faction == Faction.NEUTRAL) {
+                    if (m.getRemainingActionCooldownTicks() > 0 || m.getSpeedX() != 0 || m.getSpeedY() != 0) {
+                        buckets.add(UnitBuckets.Kind.ENEMY_MINIONS, m);
+                    } else {
+                        buckets.add(UnitBuckets.Kind.NEUTRAL_UNITS, m);
+                    }
                 } else {
-                    neutralMinions.add(m);
-                }
-            } else {
-                enemyMinions.add(m);
-                if (self.getDistanceTo(m) <= self.getVisionRange() && m.getType() == MinionType.FETISH_BLOWDART) {
-                    this.enemyFetish++;
+                    buckets.add(UnitBuckets.Kind.ENEMY_MINIONS, m);
+                    if (self.isWithin(m, self.getVisionRange()) && m.getType() == MinionType.FETISH_BLOWDART) {
+                        this.enemyFetish++;
+                    }
                 }
-
             }
         }
-        friendlyMinions.sort(cmp);
-        neutralMinions.sort(cmp);
-        enemyMinions.sort(cmp);
-        nearestMap.put(FRIENDLY_MINIONS, friendlyMinions);
-        nearestMap.put(ENEMY_MINIONS, enemyMinions);
-        nearestMap.put(NEUTRAL_UNITS, neutralMinions);
 
         //BUILDING
-        List<LivingUnit> friendlyBuildings = new ArrayList<>();
-        List<LivingUnit> enemyBuildings = new ArrayList<>();
         this.enemyBuildings = new HashMap<>();
-        for (Building b : world.getBuildings()) {
-            if (self.getFaction() == b.getFaction()) {
-                friendlyBuildings.add(b);
-            } else {
-                enemyBuildings.add(b);
-                this.enemyBuildings.put(new IntPoint((int) Math.round(b.getX()), (int) Math.round(b.getY())), b);
+        for (Faction faction : FACTIONS) {
+            boolean friendly = self.getFaction() == faction;
+            for (int i = 0; i < world.getBuildingCount(faction); i++) {
+                Building b = world.getBuilding(faction, i);
+                if (friendly) {
+                    buckets.add(UnitBuckets.Kind.FRIENDLY_BUILDINGS, b);
+                } else {
+                    buckets.add(UnitBuckets.Kind.ENEMY_BUILDINGS, b);
+                    this.enemyBuildings.put(new IntPoint((int) Math.round(b.getX()), (int) Math.round(b.getY())), b);
+                }
             }
         }
-        friendlyBuildings.sort(cmp);
-        enemyBuildings.sort(cmp);
-        nearestMap.put(FRIENDLY_BUILDINGS, friendlyBuildings);
-        nearestMap.put(ENEMY_BUILDINGS, enemyBuildings);
-        List<LivingUnit> enemies = new ArrayList<>();
-        //ENEMIES
-        enemies.addAll(enemyWizards);
-        enemies.addAll(enemyMinions);
-        enemies.addAll(enemyBuildings);
-        enemies.sort(cmp);
-        nearestMap.put(ENEMIES, enemies);
-        return nearestMap;
+
+        //ENEMIES are merged from the sorted enemy buckets
+        buckets.sort(self);
     }
 
     private final class BuildingMark {
@@ -924,7 +858,8 @@ public final class MyStrategy implements Strategy {
         private LivingUnit unit;
         private double interest = 1.0;
 
-        private Enemy(Game game, LivingUnit unit, Point2D target, Danger danger) {
+        private Enemy(Game game, LivingUnit unit, double facingX, double facingY, double targetX, double targetY,
+                      Danger danger) {
             this.unit = unit;
             interest = game.getMagicMissileDirectDamage();
             interest *= (2 - unit.getLife() / unit.getMaxLife());
@@ -938,7 +873,7 @@ public final class MyStrategy implements Strategy {
                     interest *= game.getWizardDamageScoreFactor() == 0.0 ? 1.0 : 1 + game.getWizardDamageScoreFactor();
                 }
                 if (checkDamage) {
-                    interest += getWizardDamageForPoint(target, unit, danger);
+                    interest += getWizardDamageForPoint(targetX, targetY, unit, facingX, facingY, danger);
                 }
             } else if (unit instanceof Building) {
 //                Building b = (Building) unit;
@@ -955,7 +890,7 @@ public final class MyStrategy implements Strategy {
                     interest *= game.getBuildingDamageScoreFactor() == 0.0 ? 1.0 : 1 + game.getBuildingDamageScoreFactor();
                 }
                 if (checkDamage) {
-                    interest += getBuildingDamageForPoint(target, unit, danger);
+                    interest += getBuildingDamageForPoint(targetX, targetY, unit, danger);
                 }
             } else if (unit instanceof Minion) {
                 Minion m = (Minion) unit;
@@ -970,7 +905,7 @@ public final class MyStrategy implements Strategy {
                     interest *= game.getMinionDamageScoreFactor() == 0.0 ? 1.0 : 1 + game.getMinionDamageScoreFactor();
                 }
                 if (checkDamage) {
-                    interest += getMinionDamageForPoint(target, unit, danger);
+                    interest += getMinionDamageForPoint(targetX, targetY, unit, facingX, facingY, danger);
                 }
             }
 
@@ -1012,18 +947,6 @@ public final class MyStrategy implements Strategy {
             result = 31 * result + y;
             return result;
         }
-
-        public double getDistanceTo(double x, double y) {
-            return StrictMath.hypot(this.x - x, this.y - y);
-        }
-
-        public double getDistanceTo(Point2D point) {
-            return getDistanceTo(point.x, point.y);
-        }
-
-        public double getDistanceTo(Unit unit) {
-            return getDistanceTo(unit.getX(), unit.getY());
-        }
     }
 
     /**
@@ -1032,42 +955,12 @@ public final class MyStrategy implements Strategy {
     private static final class Point2D {
         private final double x;
         private final double y;
-        private double moveInterest = 0.0;
-        private double attackInterest = 0.0;
-        private double damageInterest = 0.0;
-        private List<Enemy> enemies = new ArrayList<>();
-
-        private Point2D(Unit unit) {
-            this.x = unit.getX();
-            this.y = unit.getY();
-        }
 
         private Point2D(double x, double y) {
             this.x = x;
             this.y = y;
         }
 
-        public List<Enemy> getEnemies() {
-            return enemies;
-        }
-
-        public void appendToEnemies(Enemy e) {
-            enemies.add(e);
-        }
-
-        public void appendToMoveInterest(double moveInterest) {
-            this.moveInterest += moveInterest;
-        }
-
-        public void appendToAttackInterest(double attackInterest) {
-            this.attackInterest += attackInterest;
-        }
-
-        public void appendToDamageInterest(double damageInterest) {
-            this.damageInterest += damageInterest;
-        }
-
-
         public double getX() {
             return x;
         }
@@ -1076,36 +969,12 @@ public final class MyStrategy implements Strategy {
             return y;
         }
 
-        public double getMoveInterest() {
-            return moveInterest;
-        }
-
-        public double getAttackInterest() {
-            return attackInterest;
-        }
-
-        public double getDamageInterest() {
-            return damageInterest;
-        }
-
         public boolean isValid() {
-            return x >= 0 && x <= 4000d && y >= 0 && y <= 4000d;
-        }
-
-        public double getDistanceTo(double x, double y) {
-            return StrictMath.hypot(this.x - x, this.y - y);
+            return isValid(x, y);
         }
 
-        public double getDistanceTo(Point2D point) {
-            return getDistanceTo(point.x, point.y);
-        }
-
-        public double getDistanceTo(Unit unit) {
-            return getDistanceTo(unit.getX(), unit.getY());
-        }
-
-        public double getDistanceTo(BuildingMark unit) {
-            return getDistanceTo(unit.getPoint());
+        private static boolean isValid(double x, double y) {
+            return x >= 0 && x <= 4000d && y >= 0 && y <= 4000d;
         }
     }
 
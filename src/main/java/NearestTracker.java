@@ -0,0 +1,237 @@
+import model.Unit;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps a list of units ordered by distance to an origin from tick to tick.
+ * <p>
+ * Units are identified by id. Every tick the units that were already tracked start from last tick's order, new units
+ * go to the end, and an insertion sort over an index array repairs the order. Units move only a few points per tick,
+ * so this usually costs one distance computation per unit and a handful of swaps. When the order changed too much
+ * (first tick, respawn) a merge sort takes over. Ties are broken by the position in the input list, so the result is
+ * the same as that of a stable sort by distance.
+ */
+final class NearestTracker<U extends Unit> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INSERTION_SORT_SHIFTS_PER_UNIT = 8;
+
+    private Unit[] units = new Unit[INITIAL_CAPACITY];
+    private double[] distances = new double[INITIAL_CAPACITY];
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int[] buffer = new int[INITIAL_CAPACITY];
+    private int unitCount;
+
+    private int previousCount;
+    private final RankIndex previousRanks = new RankIndex();
+
+    private double[] sortedDistances = new double[INITIAL_CAPACITY];
+
+    private final UnitMath math;
+
+    NearestTracker(UnitMath math) {
+        this.math = math;
+    }
+
+    /**
+     * Reorders {@code units} in place by ascending distance to {@code origin}.
+     */
+    void sort(List<U> units, Unit origin) {
+        int unitCount = units.size();
+        ensureCapacity(unitCount);
+        this.unitCount = unitCount;
+
+        Arrays.fill(buffer, 0, previousCount, -1);
+        int newUnitCount = 0;
+
+        for (int unitIndex = 0; unitIndex < unitCount; ++unitIndex) {
+            U unit = units.get(unitIndex);
+            this.units[unitIndex] = unit;
+            distances[unitIndex] = math.getDistanceTo(origin, unit);
+
+            int previousRank = previousRanks.get(unit.getId());
+            if (previousRank >= 0 && buffer[previousRank] < 0) {
+                buffer[previousRank] = unitIndex;
+            } else {
+                // new units are appended from the back of the order array and reversed below
+                order[unitCount - ++newUnitCount] = unitIndex;
+            }
+        }
+
+        int position = 0;
+        for (int rank = 0; rank < previousCount; ++rank) {
+            if (buffer[rank] >= 0) {
+                order[position++] = buffer[rank];
+            }
+        }
+
+        reverse(order, position, unitCount);
+
+        if (!insertionSort()) {
+            mergeSort();
+        }
+
+        previousRanks.reset(unitCount);
+        for (int rank = 0; rank < unitCount; ++rank) {
+            int unitIndex = order[rank];
+            @SuppressWarnings("unchecked") U unit = (U) this.units[unitIndex];
+
+            units.set(rank, unit);
+            sortedDistances[rank] = distances[unitIndex];
+            previousRanks.put(unit.getId(), rank);
+        }
+
+        Arrays.fill(this.units, 0, unitCount, null);
+        previousCount = unitCount;
+    }
+
+    /**
+     * @return the distance from the origin of the last sort to the unit at {@code rank} in the sorted list
+     */
+    double getDistance(int rank) {
+        return sortedDistances[rank];
+    }
+
+    private boolean insertionSort() {
+        int shiftBudget = unitCount * INSERTION_SORT_SHIFTS_PER_UNIT;
+
+        for (int i = 1; i < unitCount; ++i) {
+            int unitIndex = order[i];
+            int j = i - 1;
+
+            while (j >= 0 && isBefore(unitIndex, order[j])) {
+                order[j + 1] = order[j];
+                --j;
+
+                if (--shiftBudget < 0) {
+                    order[j + 1] = unitIndex;
+                    return false;
+                }
+            }
+
+            order[j + 1] = unitIndex;
+        }
+
+        return true;
+    }
+
+    private void mergeSort() {
+        int[] source = order;
+        int[] target = buffer;
+
+        for (int width = 1; width < unitCount; width <<= 1) {
+            for (int start = 0; start < unitCount; start += width << 1) {
+                int middle = StrictMath.min(start + width, unitCount);
+                int end = StrictMath.min(start + (width << 1), unitCount);
+                int left = start;
+                int right = middle;
+
+                for (int position = start; position < end; ++position) {
+                    if (left < middle && (right >= end || !isBefore(source[right], source[left]))) {
+                        target[position] = source[left++];
+                    } else {
+                        target[position] = source[right++];
+                    }
+                }
+            }
+
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != order) {
+            System.arraycopy(source, 0, order, 0, unitCount);
+        }
+    }
+
+    private boolean isBefore(int unitIndexA, int unitIndexB) {
+        double distanceA = distances[unitIndexA];
+        double distanceB = distances[unitIndexB];
+        return distanceA < distanceB || distanceA == distanceB && unitIndexA < unitIndexB;
+    }
+
+    private void ensureCapacity(int unitCount) {
+        int capacity = units.length;
+        if (unitCount <= capacity) {
+            return;
+        }
+
+        while (capacity < unitCount) {
+            capacity <<= 1;
+        }
+
+        units = new Unit[capacity];
+        distances = new double[capacity];
+        order = new int[capacity];
+        buffer = new int[capacity];
+        sortedDistances = new double[capacity];
+    }
+
+    private static void reverse(int[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; ++i, --j) {
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    /**
+     * Open-addressing map from unit id to its rank in the previous tick.
+     */
+    private static final class RankIndex {
+        private long[] keys = new long[INITIAL_CAPACITY * 2];
+        private int[] ranks = new int[INITIAL_CAPACITY * 2];
+        private int mask = INITIAL_CAPACITY * 2 - 1;
+
+        RankIndex() {
+            Arrays.fill(ranks, -1);
+        }
+
+        int get(long key) {
+            for (int slot = slotOf(key); ranks[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return ranks[slot];
+                }
+            }
+
+            return -1;
+        }
+
+        void put(long key, int rank) {
+            int slot = slotOf(key);
+            for (; ranks[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    ranks[slot] = rank;
+                    return;
+                }
+            }
+
+            keys[slot] = key;
+            ranks[slot] = rank;
+        }
+
+        /**
+         * Removes all entries and makes room for {@code expectedSize} of them at a load factor of at most one half.
+         */
+        void reset(int expectedSize) {
+            int capacity = mask + 1;
+            if (capacity < expectedSize * 2) {
+                while (capacity < expectedSize * 2) {
+                    capacity <<= 1;
+                }
+
+                keys = new long[capacity];
+                ranks = new int[capacity];
+                mask = capacity - 1;
+            }
+
+            Arrays.fill(ranks, -1);
+        }
+
+        private int slotOf(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
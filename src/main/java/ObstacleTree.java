@@ -0,0 +1,415 @@
+import model.CircularUnit;
+import model.UnitColumns;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounding-volume hierarchy over circular obstacles (trees and buildings) that persists between ticks.
+ * <p>
+ * An update compares the new obstacles with the ones the hierarchy was built from and rebuilds it only if their ids
+ * or geometry differ. Obstacles come either as unit objects or straight from the decoder's {@link UnitColumns}.
+ * Results are reported as indices into the obstacles passed to the last update, in the order they were passed.
+ */
+final class ObstacleTree {
+    private static final int LEAF_SIZE = 8;
+    private static final int MAX_DEPTH = 64;
+    private static final double EPSILON = 1.0E-6D;
+
+    private long[] ids = new long[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] radii = new double[0];
+    private int[] order = new int[0];
+    private int unitCount;
+
+    private long[] stagedIds = new long[0];
+    private double[] stagedXs = new double[0];
+    private double[] stagedYs = new double[0];
+    private double[] stagedRadii = new double[0];
+    private int stagedCount;
+
+    private int nodeCount;
+    private int[] nodeStarts = new int[0];
+    private int[] nodeEnds = new int[0];
+    private int[] nodeLefts = new int[0];
+    private int[] nodeRights = new int[0];
+    private double[] nodeMinXs = new double[0];
+    private double[] nodeMinYs = new double[0];
+    private double[] nodeMaxXs = new double[0];
+    private double[] nodeMaxYs = new double[0];
+
+    private final int[] stack = new int[MAX_DEPTH * 2];
+    private int[] result = new int[0];
+    private double[] resultDistances = new double[0];
+
+    private final UnitMath math;
+
+    /**
+     * @param math distances overlaps are tested with
+     */
+    ObstacleTree(UnitMath math) {
+        this.math = math;
+    }
+
+    /**
+     * @return {@code true} if the hierarchy had to be rebuilt
+     */
+    boolean update(List<? extends CircularUnit> units) {
+        int unitCount = units.size();
+        ensureStagedCapacity(unitCount);
+        stagedCount = unitCount;
+
+        for (int unitIndex = 0; unitIndex < unitCount; ++unitIndex) {
+            CircularUnit unit = units.get(unitIndex);
+            stagedIds[unitIndex] = unit.getId();
+            stagedXs[unitIndex] = unit.getX();
+            stagedYs[unitIndex] = unit.getY();
+            stagedRadii[unitIndex] = unit.getRadius();
+        }
+
+        return commit();
+    }
+
+    /**
+     * Same as {@link #update(List)} with the units of all {@code columns} one after another.
+     *
+     * @return {@code true} if the hierarchy had to be rebuilt
+     */
+    boolean update(UnitColumns... columns) {
+        int unitCount = 0;
+        for (UnitColumns unitColumns : columns) {
+            unitCount += unitColumns.getCount();
+        }
+
+        ensureStagedCapacity(unitCount);
+        stagedCount = 0;
+
+        for (UnitColumns unitColumns : columns) {
+            for (int index = 0, count = unitColumns.getCount(); index < count; ++index) {
+                stagedIds[stagedCount] = unitColumns.getId(index);
+                stagedXs[stagedCount] = unitColumns.getX(index);
+                stagedYs[stagedCount] = unitColumns.getY(index);
+                stagedRadii[stagedCount] = unitColumns.getRadius(index);
+                ++stagedCount;
+            }
+        }
+
+        return commit();
+    }
+
+    int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * @return the index of the {@code resultIndex}-th match of the last query
+     */
+    int getResult(int resultIndex) {
+        return result[resultIndex];
+    }
+
+    /**
+     * @return {@code true} if a circle of {@code radius} at ({@code x}, {@code y}) overlaps or touches any obstacle
+     */
+    boolean overlaps(double x, double y, double radius) {
+        int stackSize = pushRoot();
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+
+            if (getSquaredDistanceToNode(node, x, y) > (radius + EPSILON) * (radius + EPSILON)) {
+                continue;
+            }
+
+            if (nodeLefts[node] < 0) {
+                for (int position = nodeStarts[node]; position < nodeEnds[node]; ++position) {
+                    int unitIndex = order[position];
+                    if (math.hypot(x - xs[unitIndex], y - ys[unitIndex]) <= radius + radii[unitIndex]) {
+                        return true;
+                    }
+                }
+            } else {
+                stack[stackSize++] = nodeLefts[node];
+                stack[stackSize++] = nodeRights[node];
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the obstacles that a circle of {@code radius} at ({@code x}, {@code y}) overlaps or touches.
+     *
+     * @return the number of matches, reported in ascending index order
+     */
+    int findOverlapping(double x, double y, double radius) {
+        int resultCount = 0;
+        int stackSize = pushRoot();
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+
+            if (getSquaredDistanceToNode(node, x, y) > (radius + EPSILON) * (radius + EPSILON)) {
+                continue;
+            }
+
+            if (nodeLefts[node] < 0) {
+                for (int position = nodeStarts[node]; position < nodeEnds[node]; ++position) {
+                    int unitIndex = order[position];
+                    if (math.hypot(x - xs[unitIndex], y - ys[unitIndex]) <= radius + radii[unitIndex]) {
+                        result[resultCount++] = unitIndex;
+                    }
+                }
+            } else {
+                stack[stackSize++] = nodeLefts[node];
+                stack[stackSize++] = nodeRights[node];
+            }
+        }
+
+        Arrays.sort(result, 0, resultCount);
+        return resultCount;
+    }
+
+    /**
+     * Finds up to {@code k} obstacles with the centres closest to ({@code x}, {@code y}).
+     *
+     * @return the number of matches, reported by ascending centre distance, ties by ascending index
+     */
+    int findNearest(double x, double y, int k) {
+        int resultCount = 0;
+        k = StrictMath.min(k, unitCount);
+
+        if (k <= 0) {
+            return resultCount;
+        }
+
+        int stackSize = pushRoot();
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+
+            if (resultCount == k && getSquaredDistanceToNode(node, x, y) > resultDistances[k - 1]) {
+                continue;
+            }
+
+            if (nodeLefts[node] < 0) {
+                for (int position = nodeStarts[node]; position < nodeEnds[node]; ++position) {
+                    int unitIndex = order[position];
+                    double dx = x - xs[unitIndex];
+                    double dy = y - ys[unitIndex];
+                    resultCount = insertNearest(unitIndex, dx * dx + dy * dy, resultCount, k);
+                }
+            } else {
+                int left = nodeLefts[node];
+                int right = nodeRights[node];
+
+                // visit the nearer child first to tighten the bound early
+                if (getSquaredDistanceToNode(left, x, y) <= getSquaredDistanceToNode(right, x, y)) {
+                    stack[stackSize++] = right;
+                    stack[stackSize++] = left;
+                } else {
+                    stack[stackSize++] = left;
+                    stack[stackSize++] = right;
+                }
+            }
+        }
+
+        return resultCount;
+    }
+
+    private int insertNearest(int unitIndex, double squaredDistance, int resultCount, int k) {
+        int position = resultCount;
+
+        while (position > 0 && (resultDistances[position - 1] > squaredDistance
+                || resultDistances[position - 1] == squaredDistance && result[position - 1] > unitIndex)) {
+            --position;
+        }
+
+        if (position >= k) {
+            return resultCount;
+        }
+
+        int shiftedCount = StrictMath.min(resultCount, k - 1) - position;
+        System.arraycopy(result, position, result, position + 1, shiftedCount);
+        System.arraycopy(resultDistances, position, resultDistances, position + 1, shiftedCount);
+
+        result[position] = unitIndex;
+        resultDistances[position] = squaredDistance;
+
+        return StrictMath.min(resultCount + 1, k);
+    }
+
+    private int pushRoot() {
+        if (nodeCount == 0) {
+            return 0;
+        }
+
+        stack[0] = 0;
+        return 1;
+    }
+
+    private double getSquaredDistanceToNode(int node, double x, double y) {
+        double dx = StrictMath.max(0.0D, StrictMath.max(nodeMinXs[node] - x, x - nodeMaxXs[node]));
+        double dy = StrictMath.max(0.0D, StrictMath.max(nodeMinYs[node] - y, y - nodeMaxYs[node]));
+        return dx * dx + dy * dy;
+    }
+
+    private void ensureStagedCapacity(int capacity) {
+        if (capacity > stagedIds.length) {
+            stagedIds = new long[capacity];
+            stagedXs = new double[capacity];
+            stagedYs = new double[capacity];
+            stagedRadii = new double[capacity];
+        }
+    }
+
+    /**
+     * Rebuilds the hierarchy from the staged obstacles unless they equal the current ones.
+     */
+    private boolean commit() {
+        boolean sameGeometry = stagedCount == unitCount;
+
+        for (int unitIndex = 0; sameGeometry && unitIndex < unitCount; ++unitIndex) {
+            sameGeometry = stagedIds[unitIndex] == ids[unitIndex] && stagedXs[unitIndex] == xs[unitIndex]
+                    && stagedYs[unitIndex] == ys[unitIndex] && stagedRadii[unitIndex] == radii[unitIndex];
+        }
+
+        if (sameGeometry) {
+            return false;
+        }
+
+        // the staged arrays become the current ones, the old current ones are staged into next time
+        long[] previousIds = ids;
+        double[] previousXs = xs;
+        double[] previousYs = ys;
+        double[] previousRadii = radii;
+
+        ids = stagedIds;
+        xs = stagedXs;
+        ys = stagedYs;
+        radii = stagedRadii;
+
+        stagedIds = previousIds;
+        stagedXs = previousXs;
+        stagedYs = previousYs;
+        stagedRadii = previousRadii;
+
+        build(stagedCount);
+        return true;
+    }
+
+    private void build(int unitCount) {
+        this.unitCount = unitCount;
+
+        if (unitCount > order.length) {
+            order = new int[unitCount];
+            result = new int[unitCount];
+            resultDistances = new double[unitCount];
+
+            int maxNodeCount = 2 * unitCount;
+            nodeStarts = new int[maxNodeCount];
+            nodeEnds = new int[maxNodeCount];
+            nodeLefts = new int[maxNodeCount];
+            nodeRights = new int[maxNodeCount];
+            nodeMinXs = new double[maxNodeCount];
+            nodeMinYs = new double[maxNodeCount];
+            nodeMaxXs = new double[maxNodeCount];
+            nodeMaxYs = new double[maxNodeCount];
+        }
+
+        for (int unitIndex = 0; unitIndex < unitCount; ++unitIndex) {
+            order[unitIndex] = unitIndex;
+        }
+
+        nodeCount = 0;
+        if (unitCount > 0) {
+            buildNode(0, unitCount, 0);
+        }
+    }
+
+    private int buildNode(int start, int end, int depth) {
+        int node = nodeCount++;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minCenterX = Double.POSITIVE_INFINITY;
+        double minCenterY = Double.POSITIVE_INFINITY;
+        double maxCenterX = Double.NEGATIVE_INFINITY;
+        double maxCenterY = Double.NEGATIVE_INFINITY;
+
+        for (int position = start; position < end; ++position) {
+            int unitIndex = order[position];
+            double x = xs[unitIndex];
+            double y = ys[unitIndex];
+            double radius = radii[unitIndex];
+
+            minX = StrictMath.min(minX, x - radius);
+            minY = StrictMath.min(minY, y - radius);
+            maxX = StrictMath.max(maxX, x + radius);
+            maxY = StrictMath.max(maxY, y + radius);
+            minCenterX = StrictMath.min(minCenterX, x);
+            minCenterY = StrictMath.min(minCenterY, y);
+            maxCenterX = StrictMath.max(maxCenterX, x);
+            maxCenterY = StrictMath.max(maxCenterY, y);
+        }
+
+        nodeStarts[node] = start;
+        nodeEnds[node] = end;
+        nodeMinXs[node] = minX;
+        nodeMinYs[node] = minY;
+        nodeMaxXs[node] = maxX;
+        nodeMaxYs[node] = maxY;
+
+        if (end - start <= LEAF_SIZE || depth >= MAX_DEPTH - 1) {
+            nodeLefts[node] = -1;
+            nodeRights[node] = -1;
+            return node;
+        }
+
+        double[] coordinates = maxCenterX - minCenterX >= maxCenterY - minCenterY ? xs : ys;
+        int middle = (start + end) >>> 1;
+        select(start, end - 1, middle, coordinates);
+
+        nodeLefts[node] = buildNode(start, middle, depth + 1);
+        nodeRights[node] = buildNode(middle, end, depth + 1);
+        return node;
+    }
+
+    /**
+     * Reorders {@code order[left..right]} so that the element at {@code k} has its final sorted position by
+     * {@code coordinates}.
+     */
+    private void select(int left, int right, int k, double[] coordinates) {
+        while (left < right) {
+            double pivot = coordinates[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+
+            while (i <= j) {
+                while (coordinates[order[i]] < pivot) {
+                    ++i;
+                }
+                while (coordinates[order[j]] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    ++i;
+                    --j;
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copies the raw protocol streams of a game into memory-mapped, append-only logs:
+ * {@code <path>.in} holds every inbound byte, {@code <path>.out} every outbound byte and {@code <path>.idx} holds
+ * a pair of little-endian longs per tick (offset of the {@code PLAYER_CONTEXT} message in the inbound log and offset
+ * of the answering {@code MOVES} message in the outbound log).
+ * <p>
+ * Appends are plain memory copies. Fresh regions are mapped in {@link #reserve()}, which the client calls after the
+ * moves of a tick have been sent, so no file system calls happen between reading a frame and running strategies. A
+ * region is unmapped as soon as the next one is mapped, and the logs are truncated to their length only once the last
+ * region is released, which Windows requires.
+ */
+public final class ProtocolRecorder implements Closeable {
+    static final String INBOUND_SUFFIX = ".in";
+    static final String OUTBOUND_SUFFIX = ".out";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int REGION_SIZE_BYTES = 16 << 20;
+    private static final int MIN_HEADROOM_BYTES = 4 << 20;
+    private static final int LONG_SIZE_BYTES = Long.SIZE / Byte.SIZE;
+
+    private final MappedLog inboundLog;
+    private final MappedLog outboundLog;
+    private final MappedLog indexLog;
+
+    public ProtocolRecorder(String path) throws IOException {
+        inboundLog = new MappedLog(Paths.get(path + INBOUND_SUFFIX));
+        outboundLog = new MappedLog(Paths.get(path + OUTBOUND_SUFFIX));
+        indexLog = new MappedLog(Paths.get(path + INDEX_SUFFIX));
+    }
+
+    public long getInboundLength() {
+        return inboundLog.length;
+    }
+
+    public long getOutboundLength() {
+        return outboundLog.length;
+    }
+
+    public void writeInbound(ByteBuffer bytes) throws IOException {
+        inboundLog.write(bytes);
+    }
+
+    public void writeOutbound(ByteBuffer bytes) throws IOException {
+        outboundLog.write(bytes);
+    }
+
+    public void markTick(long inboundOffset, long outboundOffset) throws IOException {
+        indexLog.writeLong(inboundOffset);
+        indexLog.writeLong(outboundOffset);
+    }
+
+    public void reserve() throws IOException {
+        inboundLog.reserve(MIN_HEADROOM_BYTES);
+        outboundLog.reserve(MIN_HEADROOM_BYTES);
+        indexLog.reserve(2 * LONG_SIZE_BYTES);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            inboundLog.close();
+        } finally {
+            try {
+                outboundLog.close();
+            } finally {
+                indexLog.close();
+            }
+        }
+    }
+
+    private static final class MappedLog implements Closeable {
+        private final FileChannel channel;
+        private MappedByteBuffer region;
+        private long length;
+
+        private MappedLog(Path path) throws IOException {
+            channel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+            map();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                if (!region.hasRemaining()) {
+                    map();
+                }
+
+                int limit = bytes.limit();
+                int chunkSize = StrictMath.min(region.remaining(), bytes.remaining());
+
+                bytes.limit(bytes.position() + chunkSize);
+                region.put(bytes);
+                bytes.limit(limit);
+
+                length += chunkSize;
+            }
+        }
+
+        private void writeLong(long value) throws IOException {
+            reserve(LONG_SIZE_BYTES);
+            region.putLong(value);
+            length += LONG_SIZE_BYTES;
+        }
+
+        private void reserve(int byteCount) throws IOException {
+            if (region.remaining() < byteCount) {
+                map();
+            }
+        }
+
+        private void map() throws IOException {
+            unmap();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, length, REGION_SIZE_BYTES);
+            region.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void unmap() {
+            if (region != null) {
+                Unmapper.unmap(region);
+                region = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                unmap();
+                channel.truncate(length);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Releases a mapped region right away instead of when the garbage collector gets to it. The JDK has no public API
+     * for this, so the cleaner is looked up reflectively once: {@code Unsafe.invokeCleaner} on Java 9 and newer, the
+     * buffer's own {@code cleaner()} on Java 8. Where neither is available the region is only dropped.
+     */
+    private static final class Unmapper {
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                invokeCleaner = null;
+            }
+
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        private static void unmap(MappedByteBuffer region) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, region);
+                } else {
+                    Method cleanerMethod = region.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(region);
+                    if (cleaner != null) {
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // left to the garbage collector
+            }
+        }
+    }
+}
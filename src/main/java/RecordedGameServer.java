@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * In-process stand-in for the game server that plays a game recorded by {@link ProtocolRecorder} back to a client.
+ * <p>
+ * Like the real server, it sends the {@code PLAYER_CONTEXT} message of a tick only after it has read the client's
+ * {@code MOVES} for the previous one, so a local game goes through the full request/response cycle of every tick.
+ * Run over a {@link LoopbackTransport} this costs no socket round trips. The moves themselves are read and discarded.
+ */
+final class RecordedGameServer implements Runnable {
+    private static final int BUFFER_SIZE_BYTES = 1 << 16;
+    private static final int INTEGER_SIZE_BYTES = Integer.SIZE / Byte.SIZE;
+    private static final int LONG_SIZE_BYTES = Long.SIZE / Byte.SIZE;
+    private static final int DOUBLE_SIZE_BYTES = Double.SIZE / Byte.SIZE;
+
+    private static final int MOVE_SIZE_BYTES = 6 * DOUBLE_SIZE_BYTES + LONG_SIZE_BYTES + 2;
+    private static final int MESSAGE_HEADER_SIZE_BYTES = 2;
+
+    private final ByteBuffer inbound;
+    private final int[] tickOffsets;
+    private final Transport transport;
+    private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    private int movesCount;
+
+    /**
+     * The inbound log is mapped as a single buffer, so it can't be longer than {@code Integer.MAX_VALUE} bytes; longer
+     * recordings can still be played with {@link ReplayTransport}.
+     *
+     * @param path      path the game was recorded to, without the log suffixes
+     * @param transport server endpoint of the connection to the client
+     */
+    RecordedGameServer(String path, Transport transport) throws IOException {
+        this.transport = transport;
+
+        try (FileChannel channel = FileChannel.open(
+                Paths.get(path + ProtocolRecorder.INBOUND_SUFFIX), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format(
+                        "Recorded game '%s' is %d bytes long, at most %d can be served in-process; replay it instead.",
+                        path, size, Integer.MAX_VALUE
+                ));
+            }
+
+            inbound = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                Paths.get(path + ProtocolRecorder.INDEX_SUFFIX), StandardOpenOption.READ)) {
+            LongBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+            // the index holds (inbound offset, outbound offset) pairs, only the former is needed
+            tickOffsets = new int[index.remaining() / 2];
+            long previousOffset = 0L;
+            for (int tickIndex = 0; tickIndex < tickOffsets.length; ++tickIndex) {
+                long offset = index.get(2 * tickIndex);
+                if (offset < previousOffset || offset > inbound.limit()) {
+                    throw new IOException(String.format(
+                            "Tick %d of recorded game '%s' starts at %d, outside of %d..%d.",
+                            tickIndex, path, offset, previousOffset, inbound.limit()
+                    ));
+                }
+
+                tickOffsets[tickIndex] = (int) offset;
+                previousOffset = offset;
+            }
+        }
+
+        input.flip();
+    }
+
+    /**
+     * Starts serving the recording at {@code path} on a daemon thread.
+     *
+     * @return the client endpoint of the connection
+     */
+    static Transport start(String path) throws IOException {
+        LoopbackTransport clientTransport = new LoopbackTransport();
+        Thread thread = new Thread(
+                new RecordedGameServer(path, clientTransport.getPeer()), RecordedGameServer.class.getSimpleName()
+        );
+        thread.setDaemon(true);
+        thread.start();
+        return clientTransport;
+    }
+
+    /**
+     * @return the number of {@code MOVES} messages read from the client so far
+     */
+    int getMovesCount() {
+        return movesCount;
+    }
+
+    @Override
+    public void run() {
+        try {
+            serve();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                transport.close();
+            } catch (IOException ignored) {
+                // nothing left to tell the client
+            }
+        }
+    }
+
+    void serve() throws IOException {
+        skipToken();
+        skipProtocolVersion();
+
+        int tickCount = tickOffsets.length;
+        int offset = 0;
+
+        for (int tickIndex = 0; tickIndex < tickCount; ++tickIndex) {
+            send(offset, tickOffsets[tickIndex]);
+            if (tickIndex > 0) {
+                skipMoves();
+            }
+            offset = tickOffsets[tickIndex];
+        }
+
+        // the last player context is followed by the end of the game
+        send(offset, inbound.limit());
+        if (tickCount > 0) {
+            skipMoves();
+        }
+    }
+
+    private void send(int from, int to) throws IOException {
+        ByteBuffer frame = inbound.duplicate();
+        frame.limit(to).position(from);
+        transport.write(frame);
+    }
+
+    private void skipToken() throws IOException {
+        skip(1);
+        skip(StrictMath.max(readInt(), 0));
+    }
+
+    private void skipProtocolVersion() throws IOException {
+        skip(1 + INTEGER_SIZE_BYTES);
+    }
+
+    private void skipMoves() throws IOException {
+        skip(1);
+        int moveCount = readInt();
+
+        for (int moveIndex = 0; moveIndex < moveCount; ++moveIndex) {
+            if (readByte() == 0) {
+                continue;
+            }
+
+            skip(MOVE_SIZE_BYTES);
+            int messageCount = readInt();
+
+            for (int messageIndex = 0; messageIndex < messageCount; ++messageIndex) {
+                if (readByte() != 0) {
+                    skip(MESSAGE_HEADER_SIZE_BYTES);
+                    skip(StrictMath.max(readInt(), 0));
+                }
+            }
+        }
+
+        ++movesCount;
+    }
+
+    private byte readByte() throws IOException {
+        ensureInput(1);
+        return input.get();
+    }
+
+    private int readInt() throws IOException {
+        ensureInput(INTEGER_SIZE_BYTES);
+        return input.getInt();
+    }
+
+    private void skip(int byteCount) throws IOException {
+        while (byteCount > 0) {
+            ensureInput(1);
+
+            int chunkSize = StrictMath.min(input.remaining(), byteCount);
+            input.position(input.position() + chunkSize);
+            byteCount -= chunkSize;
+        }
+    }
+
+    private void ensureInput(int byteCount) throws IOException {
+        if (input.remaining() >= byteCount) {
+            return;
+        }
+
+        input.compact();
+
+        while (input.position() < byteCount) {
+            if (transport.read(input) == -1) {
+                input.flip();
+                throw new IOException(String.format("Can't read %d bytes from the client.", byteCount));
+            }
+        }
+
+        input.flip();
+    }
+}
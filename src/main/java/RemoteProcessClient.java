@@ -1,44 +1,103 @@
 import model.*;
 
 import java.io.*;
-import java.lang.reflect.Array;
-import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.IntFunction;
 
 public final class RemoteProcessClient implements Closeable {
     private static final int BUFFER_SIZE_BYTES = 1 << 20;
     private static final ByteOrder PROTOCOL_BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
     private static final int INTEGER_SIZE_BYTES = Integer.SIZE / Byte.SIZE;
     private static final int LONG_SIZE_BYTES = Long.SIZE / Byte.SIZE;
+    private static final int DOUBLE_SIZE_BYTES = Double.SIZE / Byte.SIZE;
+
+    private static final int UNIT_HEADER_SIZE_BYTES = LONG_SIZE_BYTES + 5 * DOUBLE_SIZE_BYTES + 1 + DOUBLE_SIZE_BYTES;
+    private static final int STATUS_SIZE_BYTES = 3 * LONG_SIZE_BYTES + 1 + INTEGER_SIZE_BYTES;
+    private static final int WIZARD_STATS_SIZE_BYTES = LONG_SIZE_BYTES + 1 + 4 * INTEGER_SIZE_BYTES + 2 * DOUBLE_SIZE_BYTES;
+
+    private static final int UNIT_CACHE_MAX_AGE = 100;
 
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
-    private final Socket socket;
-    private final InputStream inputStream;
-    private final OutputStream outputStream;
-    private final ByteArrayOutputStream outputStreamBuffer;
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final Faction[] FACTIONS = Faction.values();
+    private static final MinionType[] MINION_TYPES = MinionType.values();
+    private static final BuildingType[] BUILDING_TYPES = BuildingType.values();
+    private static final ProjectileType[] PROJECTILE_TYPES = ProjectileType.values();
+    private static final BonusType[] BONUS_TYPES = BonusType.values();
+    private static final StatusType[] STATUS_TYPES = StatusType.values();
+    private static final SkillType[] SKILL_TYPES = SkillType.values();
+    private static final LaneType[] LANE_TYPES = LaneType.values();
+
+    private final Transport transport;
+    private final ByteBuffer streamBuffer;
+    private ByteBuffer inputBuffer;
+    private final ByteBuffer outputBuffer;
+
+    private final ElementWriter<Move> moveWriter = this::writeMove;
+    private final ElementWriter<Message> messageWriter = this::writeMessage;
+
+    private ProtocolRecorder recorder;
+    private long playerContextOffset;
+
+    private boolean lazyDecoding;
+    private WorldColumns worldColumns;
+    private ByteBuffer captureBuffer;
+    private ByteBuffer spareCaptureBuffer;
+    private int captureGeneration;
+    private int captureStart;
+    private int captureOffset = -1;
 
     private Player[] previousPlayers;
     private Building[] previousBuildings;
     private Tree[] previousTrees;
 
-    private final Map<Long, Player> previousPlayerById = new HashMap<>();
-    private final Map<Long, Unit> previousUnitById = new HashMap<>();
+    private final UnitCache<Player> previousPlayerById = new UnitCache<>();
+    private final UnitCache<Minion> previousMinionById = new UnitCache<>();
+    private final UnitCache<Building> previousBuildingById = new UnitCache<>();
+    private final UnitCache<Tree> previousTreeById = new UnitCache<>();
+
+    private final UnitDeltaBuilder minionDelta = new UnitDeltaBuilder();
+    private final UnitDeltaBuilder buildingDelta = new UnitDeltaBuilder();
+    private final UnitDeltaBuilder treeDelta = new UnitDeltaBuilder();
 
     public RemoteProcessClient(String host, int port) throws IOException {
-        socket = new Socket(host, port);
-        socket.setSendBufferSize(BUFFER_SIZE_BYTES);
-        socket.setReceiveBufferSize(BUFFER_SIZE_BYTES);
-        socket.setTcpNoDelay(true);
+        this(new TcpTransport(host, port));
+    }
 
-        inputStream = socket.getInputStream();
-        outputStream = socket.getOutputStream();
-        outputStreamBuffer = new ByteArrayOutputStream(BUFFER_SIZE_BYTES);
+    public RemoteProcessClient(Transport transport) {
+        this.transport = transport;
+
+        streamBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE_BYTES).order(PROTOCOL_BYTE_ORDER);
+        streamBuffer.flip();
+        inputBuffer = streamBuffer;
+        outputBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE_BYTES).order(PROTOCOL_BYTE_ORDER);
+    }
+
+    public void setRecorder(ProtocolRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Makes worlds keep the protocol bytes of the wizard, projectile and bonus sections and decode them only if asked
+     * for. An unread section costs one copy into a buffer the client reuses: a world's sections must be read before
+     * the client reads the tick after the next one.
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+    }
+
+    /**
+     * Makes every world carry {@link WorldColumns} that are reused from tick to tick. Projectiles and bonuses are then
+     * scanned from the stream straight into their columns and their objects are decoded from the retained bytes only
+     * if asked for. The other kinds are decoded as usual (wizards lazily under lazy decoding) and their columns are
+     * filled in the same pass; buildings and trees only when their arrays change.
+     */
+    public void setColumnarDecoding(boolean columnarDecoding) {
+        worldColumns = columnarDecoding ? new WorldColumns() : null;
     }
 
     public void writeToken(String token) throws IOException {
@@ -54,12 +113,12 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     public int readTeamSize() throws IOException {
-        ensureMessageType(readEnum(MessageType.class), MessageType.TEAM_SIZE);
+        ensureMessageType(readEnum(MESSAGE_TYPES), MessageType.TEAM_SIZE);
         return readInt();
     }
 
     public Game readGameContext() throws IOException {
-        ensureMessageType(readEnum(MessageType.class), MessageType.GAME_CONTEXT);
+        ensureMessageType(readEnum(MESSAGE_TYPES), MessageType.GAME_CONTEXT);
         if (!readBoolean()) {
             return null;
         }
@@ -84,7 +143,11 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     public PlayerContext readPlayerContext() throws IOException {
-        MessageType messageType = readEnum(MessageType.class);
+        if (recorder != null) {
+            playerContextOffset = recorder.getInboundLength() - inputBuffer.remaining();
+        }
+
+        MessageType messageType = readEnum(MESSAGE_TYPES);
         if (messageType == MessageType.GAME_OVER) {
             return null;
         }
@@ -94,9 +157,17 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     public void writeMoves(Move[] moves) throws IOException {
+        if (recorder != null) {
+            recorder.markTick(playerContextOffset, recorder.getOutboundLength() + outputBuffer.position());
+        }
+
         writeEnum(MessageType.MOVES);
-        writeArray(moves, this::writeMove);
+        writeArray(moves, moveWriter);
         flush();
+
+        if (recorder != null) {
+            recorder.reserve();
+        }
     }
 
     private void writeMove(Move move) throws IOException {
@@ -120,7 +191,13 @@ public final class RemoteProcessClient implements Closeable {
 
     @Override
     public void close() throws IOException {
-        socket.close();
+        try {
+            transport.close();
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
     }
 
     private World readWorld() throws IOException {
@@ -128,37 +205,211 @@ public final class RemoteProcessClient implements Closeable {
             return null;
         }
 
+        // players, buildings and trees may be reused after any absence, only minions are gone for good
+        previousPlayerById.nextGeneration();
+        startUnitCacheGeneration(previousMinionById);
+        previousBuildingById.nextGeneration();
+        previousTreeById.nextGeneration();
+
+        minionDelta.clear();
+        buildingDelta.clear();
+        treeDelta.clear();
+
+        int tickIndex = readInt();
+        int tickCount = readInt();
+        double width = readDouble();
+        double height = readDouble();
+        Player[] players = readPlayers();
+
+        if (lazyDecoding || worldColumns != null) {
+            return readLazyWorld(tickIndex, tickCount, width, height, players);
+        }
+
+        Wizard[] wizards = readWizards();
+        Minion[] minions = readMinions();
+        Projectile[] projectiles = readProjectiles();
+        Bonus[] bonuses = readBonuses();
+        Building[] buildings = readBuildings();
+        Tree[] trees = readTrees();
+
         return new World(
-                readInt(), readInt(), readDouble(), readDouble(), readPlayers(), readWizards(), readMinions(),
-                readProjectiles(), readBonuses(), readBuildings(), readTrees()
+                tickIndex, tickCount, width, height, players, wizards, minions, projectiles, bonuses, buildings, trees,
+                buildWorldDelta(), null, false
+        );
+    }
+
+    private World readLazyWorld(int tickIndex, int tickCount, double width, double height, Player[] players)
+            throws IOException {
+        boolean columnar = worldColumns != null;
+        startCaptureFrame();
+
+        Wizard[] wizards = null;
+        int wizardOffset = -1;
+
+        if (lazyDecoding) {
+            wizardOffset = startCapture();
+            scanWizards(columnar ? worldColumns.getWizards() : null);
+            finishCapture();
+        } else {
+            wizards = readWizards();
+            fillColumns(worldColumns.getWizards(), wizards);
+        }
+
+        Minion[] minions = readMinions();
+
+        int projectileOffset = startCapture();
+        scanProjectiles(columnar ? worldColumns.getProjectiles() : null);
+        int bonusOffset = projectileOffset + getCaptureLength();
+        scanBonuses(columnar ? worldColumns.getBonuses() : null);
+        finishCapture();
+
+        Building[] buildings = readBuildings();
+        Tree[] trees = readTrees();
+
+        if (columnar) {
+            fillColumns(worldColumns.getMinions(), minions);
+            fillStaticColumns(buildings, trees);
+        }
+
+        return new World(
+                tickIndex, tickCount, width, height, players, minions, buildings, trees, buildWorldDelta(),
+                worldColumns, new LazyWorldSections(wizards, wizardOffset, projectileOffset, bonusOffset), false
+        );
+    }
+
+    private void fillStaticColumns(Building[] buildings, Tree[] trees) {
+        if (!buildingDelta.arrayReused) {
+            fillColumns(worldColumns.getBuildings(), buildings);
+        }
+
+        if (!treeDelta.arrayReused) {
+            fillColumns(worldColumns.getTrees(), trees);
+        }
+    }
+
+    private static void fillColumns(UnitColumns columns, CircularUnit[] units) {
+        columns.clear();
+
+        for (CircularUnit unit : units) {
+            if (unit == null) {
+                continue;
+            }
+
+            int index = columns.add(
+                    unit.getId(), unit.getX(), unit.getY(), unit.getSpeedX(), unit.getSpeedY(), unit.getAngle(),
+                    unit.getFaction(), unit.getRadius()
+            );
+
+            if (unit instanceof LivingUnit) {
+                LivingUnit livingUnit = (LivingUnit) unit;
+                columns.setLife(index, livingUnit.getLife(), livingUnit.getMaxLife());
+            }
+
+            columns.setTypeOrdinal(index, getTypeOrdinal(unit));
+        }
+    }
+
+    private static int getTypeOrdinal(CircularUnit unit) {
+        Enum<?> type;
+
+        if (unit instanceof Minion) {
+            type = ((Minion) unit).getType();
+        } else if (unit instanceof Building) {
+            type = ((Building) unit).getType();
+        } else if (unit instanceof Projectile) {
+            type = ((Projectile) unit).getType();
+        } else if (unit instanceof Bonus) {
+            type = ((Bonus) unit).getType();
+        } else {
+            type = null;
+        }
+
+        return type == null ? -1 : type.ordinal();
+    }
+
+    private WorldDelta buildWorldDelta() {
+        return new WorldDelta(
+                minionDelta.build(previousMinionById), buildingDelta.build(previousBuildingById),
+                treeDelta.build(previousTreeById), buildingDelta.arrayReused, treeDelta.arrayReused
         );
     }
 
+    private static void startUnitCacheGeneration(UnitCache<?> unitCache) {
+        unitCache.nextGeneration();
+
+        if (unitCache.getGeneration() % UNIT_CACHE_MAX_AGE == 0) {
+            unitCache.evict(UNIT_CACHE_MAX_AGE);
+        }
+    }
+
+    /**
+     * @return the player or unit the server reuses by id (flag {@code 100})
+     */
+    private static <V> V getReused(UnitCache<V> unitCache, long id) throws IOException {
+        V value = unitCache.get(id);
+        if (value == null) {
+            throw new IOException(String.format("Server reused unknown object [id=%d].", id));
+        }
+        return value;
+    }
+
+    private static void touchUnits(Unit[] units, UnitCache<?> unitCache, UnitDeltaBuilder unitDelta) {
+        unitDelta.arrayReused = true;
+
+        if (units == null) {
+            return;
+        }
+
+        for (Unit unit : units) {
+            if (unit != null) {
+                unitCache.get(unit.getId());
+                unitDelta.addUnchanged(unit.getId());
+            }
+        }
+    }
+
+    private static <U extends Unit> void cacheUnit(U unit, UnitCache<U> unitCache, UnitDeltaBuilder unitDelta) {
+        int previousGeneration = unitCache.put(unit.getId(), unit);
+        unitDelta.add(unit.getId(), previousGeneration >= unitCache.getGeneration() - 1);
+    }
+
     private Player[] readPlayers() throws IOException {
-        Player[] players = readArray(Player.class, this::readPlayer);
-        return players == null ? previousPlayers : (previousPlayers = players);
+        Player[] players = readArray(Player[]::new, this::readPlayer);
+        if (players != null) {
+            return previousPlayers = players;
+        }
+
+        if (previousPlayers != null) {
+            for (Player player : previousPlayers) {
+                if (player != null) {
+                    previousPlayerById.get(player.getId());
+                }
+            }
+        }
+
+        return previousPlayers;
     }
 
     private Player readPlayer() throws IOException {
-        byte flag = readBytes(1)[0];
+        byte flag = readByte();
 
         if (flag == 0) {
             return null;
         }
 
         if (flag == 100) {
-            return previousPlayerById.get(readLong());
+            return getReused(previousPlayerById, readLong());
         }
 
         Player player = new Player(
-                readLong(), readBoolean(), readString(), readBoolean(), readInt(), readEnum(Faction.class)
+                readLong(), readBoolean(), readString(), readBoolean(), readInt(), readEnum(FACTIONS)
         );
         previousPlayerById.put(player.getId(), player);
         return player;
     }
 
     private Wizard[] readWizards() throws IOException {
-        return readArray(Wizard.class, this::readWizard);
+        return readArray(Wizard[]::new, this::readWizard);
     }
 
     private Wizard readWizard() throws IOException {
@@ -168,38 +419,61 @@ public final class RemoteProcessClient implements Closeable {
 
         return new Wizard(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readInt(), readInt(), readStatuses(), readLong(), readBoolean(),
-                readInt(), readInt(), readDouble(), readDouble(), readInt(), readInt(), readEnumArray(SkillType.class),
-                readInt(), readIntArray(), readBoolean(), readMessages()
+                readEnum(FACTIONS), readDouble(), readInt(), readInt(), readStatuses(), readLong(), readBoolean(),
+                readInt(), readInt(), readDouble(), readDouble(), readInt(), readInt(), readEnumArray(SKILL_TYPES, SkillType[]::new),
+                readInt(), readIntArray(), readBoolean(), readMessages(), false
         );
     }
 
+    private void scanWizards(UnitColumns columns) throws IOException {
+        int length = readInt();
+        if (columns != null) {
+            columns.clear();
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if (readBoolean()) {
+                int index = scanUnitHeader(columns);
+                scanLife(columns, index);
+                skipStatuses();
+                skipBytes(WIZARD_STATS_SIZE_BYTES);
+                skipBytes(StrictMath.max(readInt(), 0));
+                skipBytes(INTEGER_SIZE_BYTES);
+                skipBytes(StrictMath.max(readInt(), 0) * INTEGER_SIZE_BYTES);
+                skipBytes(1);
+                skipMessages();
+            }
+        }
+    }
+
     private Minion[] readMinions() throws IOException {
-        return readArray(Minion.class, this::readMinion);
+        return readArray(Minion[]::new, this::readMinion);
     }
 
     private Minion readMinion() throws IOException {
-        byte flag = readBytes(1)[0];
+        byte flag = readByte();
 
         if (flag == 0) {
             return null;
         }
 
         if (flag == 100) {
-            return (Minion) previousUnitById.get(readLong());
+            long id = readLong();
+            minionDelta.addUnchanged(id);
+            return getReused(previousMinionById, id);
         }
 
         Minion minion = new Minion(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readInt(), readInt(), readStatuses(), readEnum(MinionType.class),
-                readDouble(), readInt(), readInt(), readInt()
+                readEnum(FACTIONS), readDouble(), readInt(), readInt(), readStatuses(), readEnum(MINION_TYPES),
+                readDouble(), readInt(), readInt(), readInt(), false
         );
-        previousUnitById.put(minion.getId(), minion);
+        cacheUnit(minion, previousMinionById, minionDelta);
         return minion;
     }
 
     private Projectile[] readProjectiles() throws IOException {
-        return readArray(Projectile.class, this::readProjectile);
+        return readArray(Projectile[]::new, this::readProjectile);
     }
 
     private Projectile readProjectile() throws IOException {
@@ -209,12 +483,27 @@ public final class RemoteProcessClient implements Closeable {
 
         return new Projectile(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readEnum(ProjectileType.class), readLong(), readLong()
+                readEnum(FACTIONS), readDouble(), readEnum(PROJECTILE_TYPES), readLong(), readLong()
         );
     }
 
+    private void scanProjectiles(UnitColumns columns) throws IOException {
+        int length = readInt();
+        if (columns != null) {
+            columns.clear();
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if (readBoolean()) {
+                int index = scanUnitHeader(columns);
+                scanType(columns, index, PROJECTILE_TYPES);
+                skipBytes(2 * LONG_SIZE_BYTES);
+            }
+        }
+    }
+
     private Bonus[] readBonuses() throws IOException {
-        return readArray(Bonus.class, this::readBonus);
+        return readArray(Bonus[]::new, this::readBonus);
     }
 
     private Bonus readBonus() throws IOException {
@@ -224,61 +513,89 @@ public final class RemoteProcessClient implements Closeable {
 
         return new Bonus(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readEnum(BonusType.class)
+                readEnum(FACTIONS), readDouble(), readEnum(BONUS_TYPES)
         );
     }
 
+    private void scanBonuses(UnitColumns columns) throws IOException {
+        int length = readInt();
+        if (columns != null) {
+            columns.clear();
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if (readBoolean()) {
+                int index = scanUnitHeader(columns);
+                scanType(columns, index, BONUS_TYPES);
+            }
+        }
+    }
+
     private Building[] readBuildings() throws IOException {
-        Building[] buildings = readArray(Building.class, this::readBuilding);
-        return buildings == null ? previousBuildings : (previousBuildings = buildings);
+        Building[] buildings = readArray(Building[]::new, this::readBuilding);
+        if (buildings != null) {
+            return previousBuildings = buildings;
+        }
+
+        touchUnits(previousBuildings, previousBuildingById, buildingDelta);
+        return previousBuildings;
     }
 
     private Building readBuilding() throws IOException {
-        byte flag = readBytes(1)[0];
+        byte flag = readByte();
 
         if (flag == 0) {
             return null;
         }
 
         if (flag == 100) {
-            return (Building) previousUnitById.get(readLong());
+            long id = readLong();
+            buildingDelta.addUnchanged(id);
+            return getReused(previousBuildingById, id);
         }
 
         Building building = new Building(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readInt(), readInt(), readStatuses(),
-                readEnum(BuildingType.class), readDouble(), readDouble(), readInt(), readInt(), readInt()
+                readEnum(FACTIONS), readDouble(), readInt(), readInt(), readStatuses(),
+                readEnum(BUILDING_TYPES), readDouble(), readDouble(), readInt(), readInt(), readInt(), false
         );
-        previousUnitById.put(building.getId(), building);
+        cacheUnit(building, previousBuildingById, buildingDelta);
         return building;
     }
 
     private Tree[] readTrees() throws IOException {
-        Tree[] trees = readArray(Tree.class, this::readTree);
-        return trees == null ? previousTrees : (previousTrees = trees);
+        Tree[] trees = readArray(Tree[]::new, this::readTree);
+        if (trees != null) {
+            return previousTrees = trees;
+        }
+
+        touchUnits(previousTrees, previousTreeById, treeDelta);
+        return previousTrees;
     }
 
     private Tree readTree() throws IOException {
-        byte flag = readBytes(1)[0];
+        byte flag = readByte();
 
         if (flag == 0) {
             return null;
         }
 
         if (flag == 100) {
-            return (Tree) previousUnitById.get(readLong());
+            long id = readLong();
+            treeDelta.addUnchanged(id);
+            return getReused(previousTreeById, id);
         }
 
         Tree tree = new Tree(
                 readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(),
-                readEnum(Faction.class), readDouble(), readInt(), readInt(), readStatuses()
+                readEnum(FACTIONS), readDouble(), readInt(), readInt(), readStatuses(), false
         );
-        previousUnitById.put(tree.getId(), tree);
+        cacheUnit(tree, previousTreeById, treeDelta);
         return tree;
     }
 
     private Message[] readMessages() throws IOException {
-        return readArray(Message.class, this::readMessage);
+        return readArray(Message[]::new, this::readMessage);
     }
 
     private Message readMessage() throws IOException {
@@ -286,11 +603,22 @@ public final class RemoteProcessClient implements Closeable {
             return null;
         }
 
-        return new Message(readEnum(LaneType.class), readEnum(SkillType.class), readByteArray(false));
+        return new Message(readEnum(LANE_TYPES), readEnum(SKILL_TYPES), readByteArray(false));
+    }
+
+    private void skipMessages() throws IOException {
+        int length = readInt();
+
+        for (int i = 0; i < length; ++i) {
+            if (readBoolean()) {
+                skipBytes(2);
+                skipBytes(StrictMath.max(readInt(), 0));
+            }
+        }
     }
 
     private void writeMessages(Message[] messages) throws IOException {
-        writeArray(messages, this::writeMessage);
+        writeArray(messages, messageWriter);
     }
 
     private void writeMessage(Message message) throws IOException {
@@ -306,7 +634,7 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     private Status[] readStatuses() throws IOException {
-        return readArray(Status.class, this::readStatus);
+        return readArray(Status[]::new, this::readStatus);
     }
 
     private Status readStatus() throws IOException {
@@ -314,7 +642,46 @@ public final class RemoteProcessClient implements Closeable {
             return null;
         }
 
-        return new Status(readLong(), readEnum(StatusType.class), readLong(), readLong(), readInt());
+        return new Status(readLong(), readEnum(STATUS_TYPES), readLong(), readLong(), readInt());
+    }
+
+    private int scanUnitHeader(UnitColumns columns) throws IOException {
+        if (columns == null) {
+            skipBytes(UNIT_HEADER_SIZE_BYTES);
+            return -1;
+        }
+
+        return columns.add(
+                readLong(), readDouble(), readDouble(), readDouble(), readDouble(), readDouble(), readEnum(FACTIONS),
+                readDouble()
+        );
+    }
+
+    private void scanLife(UnitColumns columns, int index) throws IOException {
+        if (columns == null) {
+            skipBytes(2 * INTEGER_SIZE_BYTES);
+        } else {
+            columns.setLife(index, readInt(), readInt());
+        }
+    }
+
+    private <E extends Enum<E>> void scanType(UnitColumns columns, int index, E[] values) throws IOException {
+        if (columns == null) {
+            skipBytes(1);
+        } else {
+            E type = readEnum(values);
+            columns.setTypeOrdinal(index, type == null ? -1 : type.ordinal());
+        }
+    }
+
+    private void skipStatuses() throws IOException {
+        int length = readInt();
+
+        for (int i = 0; i < length; ++i) {
+            if (readBoolean()) {
+                skipBytes(STATUS_SIZE_BYTES);
+            }
+        }
     }
 
     private static void ensureMessageType(MessageType actualType, MessageType expectedType) {
@@ -325,13 +692,13 @@ public final class RemoteProcessClient implements Closeable {
         }
     }
 
-    private <E> E[] readArray(Class<E> elementClass, ElementReader<E> elementReader) throws IOException {
+    private <E> E[] readArray(IntFunction<E[]> arrayFactory, ElementReader<E> elementReader) throws IOException {
         int length = readInt();
         if (length < 0) {
             return null;
         }
 
-        @SuppressWarnings("unchecked") E[] array = (E[]) Array.newInstance(elementClass, length);
+        E[] array = arrayFactory.apply(length);
 
         for (int i = 0; i < length; ++i) {
             array[i] = elementReader.read();
@@ -378,68 +745,42 @@ public final class RemoteProcessClient implements Closeable {
         }
     }
 
-    private <E extends Enum> E readEnum(Class<E> enumClass) throws IOException {
-        byte ordinal = readBytes(1)[0];
-
-        E[] values = enumClass.getEnumConstants();
-        int valueCount = values.length;
-
-        for (int valueIndex = 0; valueIndex < valueCount; ++valueIndex) {
-            E value = values[valueIndex];
-            if (value.ordinal() == ordinal) {
-                return value;
-            }
-        }
-
-        return null;
+    private <E extends Enum> E readEnum(E[] values) throws IOException {
+        byte ordinal = readByte();
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
     }
 
-    @SuppressWarnings("SubtractionInCompareTo")
-    private <E extends Enum> E[] readEnumArray(Class<E> enumClass, int count) throws IOException {
-        byte[] bytes = readBytes(count);
-        @SuppressWarnings("unchecked") E[] array = (E[]) Array.newInstance(enumClass, count);
-
-        E[] values = enumClass.getEnumConstants();
-        int valueCount = values.length;
-
-        Arrays.sort(values, (valueA, valueB) -> valueA.ordinal() - valueB.ordinal());
+    private <E extends Enum> E[] readEnumArray(E[] values, IntFunction<E[]> arrayFactory, int count)
+            throws IOException {
+        E[] array = arrayFactory.apply(count);
 
         for (int i = 0; i < count; ++i) {
-            byte ordinal = bytes[i];
-
-            if (ordinal >= 0 && ordinal < valueCount) {
-                array[i] = values[ordinal];
-            }
+            array[i] = readEnum(values);
         }
 
         return array;
     }
 
-    private <E extends Enum> E[] readEnumArray(Class<E> enumClass) throws IOException {
+    private <E extends Enum> E[] readEnumArray(E[] values, IntFunction<E[]> arrayFactory) throws IOException {
         int count = readInt();
         if (count < 0) {
             return null;
         }
 
-        return readEnumArray(enumClass, count);
+        return readEnumArray(values, arrayFactory, count);
     }
 
-    @SuppressWarnings("unchecked")
-    private <E extends Enum> E[][] readEnumArray2D(Class<E> enumClass) throws IOException {
+    private <E extends Enum> E[][] readEnumArray2D(
+            E[] values, IntFunction<E[]> arrayFactory, IntFunction<E[][]> array2DFactory) throws IOException {
         int count = readInt();
         if (count < 0) {
             return null;
         }
 
-        E[][] array;
-        try {
-            array = (E[][]) Array.newInstance(Class.forName("[L" + enumClass.getName() + ';'), count);
-        } catch (ClassNotFoundException e) {
-            throw new IllegalArgumentException("Can't load array class for " + enumClass + '.', e);
-        }
+        E[][] array = array2DFactory.apply(count);
 
         for (int i = 0; i < count; ++i) {
-            array[i] = readEnumArray(enumClass);
+            array[i] = readEnumArray(values, arrayFactory);
         }
 
         return array;
@@ -471,15 +812,14 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     private boolean readBoolean() throws IOException {
-        return readBytes(1)[0] != 0;
+        return readByte() != 0;
     }
 
     private boolean[] readBooleanArray(int count) throws IOException {
-        byte[] bytes = readBytes(count);
         boolean[] array = new boolean[count];
 
         for (int i = 0; i < count; ++i) {
-            array[i] = bytes[i] != 0;
+            array[i] = readByte() != 0;
         }
 
         return array;
@@ -514,17 +854,15 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     private int readInt() throws IOException {
-        return ByteBuffer.wrap(readBytes(INTEGER_SIZE_BYTES)).order(PROTOCOL_BYTE_ORDER).getInt();
+        ensureInput(INTEGER_SIZE_BYTES);
+        return inputBuffer.getInt();
     }
 
     private int[] readIntArray(int count) throws IOException {
-        byte[] bytes = readBytes(count * INTEGER_SIZE_BYTES);
         int[] array = new int[count];
 
         for (int i = 0; i < count; ++i) {
-            array[i] = ByteBuffer.wrap(
-                    bytes, i * INTEGER_SIZE_BYTES, INTEGER_SIZE_BYTES
-            ).order(PROTOCOL_BYTE_ORDER).getInt();
+            array[i] = readInt();
         }
 
         return array;
@@ -555,57 +893,312 @@ public final class RemoteProcessClient implements Closeable {
     }
 
     private void writeInt(int value) throws IOException {
-        writeBytes(ByteBuffer.allocate(INTEGER_SIZE_BYTES).order(PROTOCOL_BYTE_ORDER).putInt(value).array());
+        ensureOutput(INTEGER_SIZE_BYTES);
+        outputBuffer.putInt(value);
     }
 
     private long readLong() throws IOException {
-        return ByteBuffer.wrap(readBytes(LONG_SIZE_BYTES)).order(PROTOCOL_BYTE_ORDER).getLong();
+        ensureInput(LONG_SIZE_BYTES);
+        return inputBuffer.getLong();
     }
 
     private void writeLong(long value) throws IOException {
-        writeBytes(ByteBuffer.allocate(LONG_SIZE_BYTES).order(PROTOCOL_BYTE_ORDER).putLong(value).array());
+        ensureOutput(LONG_SIZE_BYTES);
+        outputBuffer.putLong(value);
     }
 
     private double readDouble() throws IOException {
-        return Double.longBitsToDouble(readLong());
+        ensureInput(LONG_SIZE_BYTES);
+        return inputBuffer.getDouble();
     }
 
     private void writeDouble(double value) throws IOException {
-        writeLong(Double.doubleToLongBits(value));
+        ensureOutput(LONG_SIZE_BYTES);
+        outputBuffer.putDouble(value);
+    }
+
+    private byte readByte() throws IOException {
+        ensureInput(1);
+        return inputBuffer.get();
     }
 
     private byte[] readBytes(int byteCount) throws IOException {
         byte[] bytes = new byte[byteCount];
         int offset = 0;
-        int readByteCount;
 
-        while (offset < byteCount && (readByteCount = inputStream.read(bytes, offset, byteCount - offset)) != -1) {
-            offset += readByteCount;
-        }
+        while (offset < byteCount) {
+            ensureInput(1);
 
-        if (offset != byteCount) {
-            throw new IOException(String.format("Can't read %d bytes from input stream.", byteCount));
+            int chunkSize = StrictMath.min(inputBuffer.remaining(), byteCount - offset);
+            inputBuffer.get(bytes, offset, chunkSize);
+            offset += chunkSize;
         }
 
         return bytes;
     }
 
+    private void skipBytes(int byteCount) throws IOException {
+        while (byteCount > 0) {
+            ensureInput(1);
+
+            int chunkSize = StrictMath.min(inputBuffer.remaining(), byteCount);
+            inputBuffer.position(inputBuffer.position() + chunkSize);
+            byteCount -= chunkSize;
+        }
+    }
+
+    private void ensureInput(int byteCount) throws IOException {
+        if (inputBuffer.remaining() < byteCount) {
+            fillInput(byteCount);
+        }
+    }
+
+    private void fillInput(int byteCount) throws IOException {
+        if (inputBuffer != streamBuffer) {
+            throw new IOException(String.format("Can't read %d bytes from retained world section.", byteCount));
+        }
+
+        if (captureOffset >= 0) {
+            appendCapture();
+            captureOffset = 0;
+        }
+
+        inputBuffer.compact();
+
+        while (inputBuffer.position() < byteCount) {
+            int offset = inputBuffer.position();
+
+            if (transport.read(inputBuffer) == -1) {
+                inputBuffer.flip();
+                throw new IOException(String.format("Can't read %d bytes from input stream.", byteCount));
+            }
+
+            if (recorder != null) {
+                record(inputBuffer, offset, true);
+            }
+        }
+
+        inputBuffer.flip();
+    }
+
+    /**
+     * Starts retaining the sections of a new tick. The two capture buffers alternate, so the sections of the previous
+     * tick stay intact while this one is read.
+     */
+    private void startCaptureFrame() {
+        ByteBuffer previousCaptureBuffer = captureBuffer;
+        captureBuffer = spareCaptureBuffer == null ? ByteBuffer.allocate(BUFFER_SIZE_BYTES) : spareCaptureBuffer;
+        spareCaptureBuffer = previousCaptureBuffer;
+
+        captureBuffer.clear();
+        ++captureGeneration;
+    }
+
+    /**
+     * @return the offset of the section in the capture buffer
+     */
+    private int startCapture() {
+        captureStart = captureBuffer.position();
+        captureOffset = inputBuffer.position();
+        return captureStart;
+    }
+
+    private int getCaptureLength() {
+        return captureBuffer.position() - captureStart + inputBuffer.position() - captureOffset;
+    }
+
+    private void finishCapture() {
+        appendCapture();
+        captureOffset = -1;
+    }
+
+    private void appendCapture() {
+        int byteCount = inputBuffer.position() - captureOffset;
+
+        if (captureBuffer.remaining() < byteCount) {
+            int capacity = StrictMath.max(captureBuffer.capacity() * 2, captureBuffer.position() + byteCount);
+            captureBuffer.flip();
+            captureBuffer = ByteBuffer.allocate(capacity).put(captureBuffer);
+        }
+
+        int position = inputBuffer.position();
+        int limit = inputBuffer.limit();
+
+        inputBuffer.limit(position).position(captureOffset);
+        captureBuffer.put(inputBuffer);
+        inputBuffer.limit(limit).position(position);
+    }
+
+    private <E> E[] decodeRetained(byte[] bytes, int offset, int length, ElementReader<E[]> sectionReader) {
+        inputBuffer = ByteBuffer.wrap(bytes, offset, length - offset).order(PROTOCOL_BYTE_ORDER);
+
+        try {
+            return sectionReader.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inputBuffer = streamBuffer;
+        }
+    }
+
+    private void record(ByteBuffer buffer, int offset, boolean inbound) throws IOException {
+        int position = buffer.position();
+        int limit = buffer.limit();
+
+        buffer.limit(position).position(offset);
+
+        if (inbound) {
+            recorder.writeInbound(buffer);
+        } else {
+            recorder.writeOutbound(buffer);
+        }
+
+        buffer.limit(limit).position(position);
+    }
+
     private void writeBytes(byte[] bytes) throws IOException {
-        outputStreamBuffer.write(bytes);
+        int byteCount = bytes.length;
+        int offset = 0;
+
+        while (offset < byteCount) {
+            ensureOutput(1);
+
+            int chunkSize = StrictMath.min(outputBuffer.remaining(), byteCount - offset);
+            outputBuffer.put(bytes, offset, chunkSize);
+            offset += chunkSize;
+        }
     }
 
     private void writeByte(int value) throws IOException {
-        try {
-            outputStreamBuffer.write(value);
-        } catch (RuntimeException e) {
-            throw new IOException("Can't write a byte into output stream.", e);
+        ensureOutput(1);
+        outputBuffer.put((byte) value);
+    }
+
+    private void ensureOutput(int byteCount) throws IOException {
+        if (outputBuffer.remaining() < byteCount) {
+            flush();
         }
     }
 
     private void flush() throws IOException {
-        outputStream.write(outputStreamBuffer.toByteArray());
-        outputStreamBuffer.reset();
-        outputStream.flush();
+        if (recorder != null) {
+            record(outputBuffer, 0, false);
+        }
+
+        outputBuffer.flip();
+
+        transport.write(outputBuffer);
+        outputBuffer.clear();
+    }
+
+    private static final class UnitDeltaBuilder {
+        private long[] addedIds = new long[64];
+        private long[] changedIds = new long[64];
+        private long[] unchangedIds = new long[64];
+        private long[] removedIds = new long[64];
+        private int addedCount;
+        private int changedCount;
+        private int unchangedCount;
+        private boolean arrayReused;
+
+        private void clear() {
+            addedCount = 0;
+            changedCount = 0;
+            unchangedCount = 0;
+            arrayReused = false;
+        }
+
+        private void add(long id, boolean changed) {
+            if (changed) {
+                if (changedCount == changedIds.length) {
+                    changedIds = Arrays.copyOf(changedIds, changedCount << 1);
+                }
+                changedIds[changedCount++] = id;
+            } else {
+                if (addedCount == addedIds.length) {
+                    addedIds = Arrays.copyOf(addedIds, addedCount << 1);
+                }
+                addedIds[addedCount++] = id;
+            }
+        }
+
+        private void addUnchanged(long id) {
+            if (unchangedCount == unchangedIds.length) {
+                unchangedIds = Arrays.copyOf(unchangedIds, unchangedCount << 1);
+            }
+            unchangedIds[unchangedCount++] = id;
+        }
+
+        /**
+         * Wraps the builder's arrays without copying them; they are refilled when the next tick is decoded.
+         */
+        private UnitDelta build(UnitCache<?> unitCache) {
+            int removedCount = 0;
+
+            if (!arrayReused) {
+                if (removedIds.length < unitCache.size()) {
+                    removedIds = new long[StrictMath.max(unitCache.size(), removedIds.length << 1)];
+                }
+                removedCount = unitCache.getKeysLastSeenIn(unitCache.getGeneration() - 1, removedIds);
+            }
+
+            return new UnitDelta(
+                    addedIds, addedCount, removedIds, removedCount, changedIds, changedCount, unchangedIds,
+                    unchangedCount, false
+            );
+        }
+    }
+
+    /**
+     * Sections of one tick retained in a capture buffer, addressed by their offsets in it.
+     */
+    private final class LazyWorldSections implements WorldSectionLoader {
+        private final Wizard[] wizards;
+        private final byte[] bytes;
+        private final int length;
+        private final int generation;
+        private final int wizardOffset;
+        private final int projectileOffset;
+        private final int bonusOffset;
+
+        /**
+         * @param wizards      the wizards if they were decoded already, otherwise {@code null}
+         * @param wizardOffset the offset of the retained wizard section if the wizards weren't decoded
+         */
+        private LazyWorldSections(Wizard[] wizards, int wizardOffset, int projectileOffset, int bonusOffset) {
+            this.wizards = wizards;
+            this.bytes = captureBuffer.array();
+            this.length = captureBuffer.position();
+            this.generation = captureGeneration;
+            this.wizardOffset = wizardOffset;
+            this.projectileOffset = projectileOffset;
+            this.bonusOffset = bonusOffset;
+        }
+
+        @Override
+        public Wizard[] loadWizards() {
+            return wizards != null ? wizards : decode(wizardOffset, RemoteProcessClient.this::readWizards);
+        }
+
+        @Override
+        public Projectile[] loadProjectiles() {
+            return decode(projectileOffset, RemoteProcessClient.this::readProjectiles);
+        }
+
+        @Override
+        public Bonus[] loadBonuses() {
+            return decode(bonusOffset, RemoteProcessClient.this::readBonuses);
+        }
+
+        private <E> E[] decode(int offset, ElementReader<E[]> sectionReader) {
+            if (captureGeneration - generation > 1) {
+                throw new IllegalStateException(String.format(
+                        "Sections of a world are read after %d more ticks were received.", captureGeneration - generation
+                ));
+            }
+
+            return decodeRetained(bytes, offset, length, sectionReader);
+        }
     }
 
     private interface ElementReader<E> {
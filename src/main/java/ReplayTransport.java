@@ -0,0 +1,31 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves the inbound stream recorded by {@link ProtocolRecorder} and discards everything written.
+ */
+public final class ReplayTransport implements Transport {
+    private final FileChannel channel;
+
+    public ReplayTransport(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path + ProtocolRecorder.INBOUND_SUFFIX), StandardOpenOption.READ);
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        return channel.read(target);
+    }
+
+    @Override
+    public void write(ByteBuffer source) {
+        source.position(source.limit());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
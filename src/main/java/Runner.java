@@ -1,18 +1,114 @@
 import model.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public final class Runner {
+    private static final String[] DEFAULT_ARGS = {"127.0.0.1", "31001", "0000000000000000"};
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String RECORD_OPTION = "--record=";
+    private static final String REPLAY_OPTION = "--replay=";
+    private static final String UNIX_SOCKET_OPTION = "--unix=";
+    private static final String LOOPBACK_OPTION = "--loopback=";
+    private static final String LAZY_OPTION = "--lazy";
+    private static final String COLUMNAR_OPTION = "--columnar";
+    private static final String FAST_MATH_OPTION = "--fast-math";
+    private static final String DIRECTIONS_OPTION = "--directions=";
+
     private final RemoteProcessClient remoteProcessClient;
     private final String token;
+    private final boolean replay;
+    private final boolean fastMath;
+    private final int directionCount;
 
     public static void main(String[] args) throws IOException {
-        new Runner(args.length == 3 ? args : new String[]{"127.0.0.1", "31001", "0000000000000000"}).run();
+        new Runner(args).run();
     }
 
     private Runner(String[] args) throws IOException {
-        remoteProcessClient = new RemoteProcessClient(args[0], Integer.parseInt(args[1]));
-        token = args[2];
+        List<String> connectionArgs = new ArrayList<>();
+        String recordPath = null;
+        String replayPath = null;
+        String unixSocketPath = null;
+        String loopbackPath = null;
+        boolean lazyDecoding = false;
+        boolean columnarDecoding = false;
+        boolean fastMath = false;
+        int directionCount = MyStrategy.DEFAULT_DIRECTION_COUNT;
+
+        for (String arg : args) {
+            if (arg.startsWith(RECORD_OPTION)) {
+                recordPath = arg.substring(RECORD_OPTION.length());
+            } else if (arg.startsWith(REPLAY_OPTION)) {
+                replayPath = arg.substring(REPLAY_OPTION.length());
+            } else if (arg.startsWith(UNIX_SOCKET_OPTION)) {
+                unixSocketPath = arg.substring(UNIX_SOCKET_OPTION.length());
+            } else if (arg.startsWith(LOOPBACK_OPTION)) {
+                loopbackPath = arg.substring(LOOPBACK_OPTION.length());
+            } else if (arg.equals(LAZY_OPTION)) {
+                lazyDecoding = true;
+            } else if (arg.equals(COLUMNAR_OPTION)) {
+                columnarDecoding = true;
+            } else if (arg.equals(FAST_MATH_OPTION)) {
+                fastMath = true;
+            } else if (arg.startsWith(DIRECTIONS_OPTION)) {
+                directionCount = Integer.parseInt(arg.substring(DIRECTIONS_OPTION.length()));
+            } else if (arg.startsWith(OPTION_PREFIX)) {
+                throw new IllegalArgumentException("Unknown option: " + arg + '.');
+            } else {
+                connectionArgs.add(arg);
+            }
+        }
+
+        if (connectionArgs.size() != 3) {
+            connectionArgs = Arrays.asList(DEFAULT_ARGS);
+        }
+
+        // the recorder is opened first and closed again if the transport fails to open, so neither of them leaks
+        ProtocolRecorder recorder = recordPath == null ? null : new ProtocolRecorder(recordPath);
+
+        Transport transport;
+        try {
+            if (replayPath != null) {
+                transport = new ReplayTransport(replayPath);
+            } else if (loopbackPath != null) {
+                transport = RecordedGameServer.start(loopbackPath);
+            } else if (unixSocketPath != null) {
+                transport = new UnixSocketTransport(unixSocketPath);
+            } else {
+                transport = new TcpTransport(connectionArgs.get(0), Integer.parseInt(connectionArgs.get(1)));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (recorder != null) {
+                try {
+                    recorder.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw e;
+        }
+
+        remoteProcessClient = new RemoteProcessClient(transport);
+        remoteProcessClient.setRecorder(recorder);
+        token = connectionArgs.get(2);
+        replay = replayPath != null || loopbackPath != null;
+        this.fastMath = fastMath;
+        this.directionCount = directionCount;
+
+        remoteProcessClient.setLazyDecoding(lazyDecoding);
+        remoteProcessClient.setColumnarDecoding(columnarDecoding);
+    }
+
+    Runner(Transport transport, String token) {
+        remoteProcessClient = new RemoteProcessClient(transport);
+        this.token = token;
+        replay = false;
+        fastMath = false;
+        directionCount = MyStrategy.DEFAULT_DIRECTION_COUNT;
     }
 
     public void run() throws IOException {
@@ -25,9 +121,14 @@ public final class Runner {
             Strategy[] strategies = new Strategy[teamSize];
 
             for (int strategyIndex = 0; strategyIndex < teamSize; ++strategyIndex) {
-                strategies[strategyIndex] = new MyStrategy();
+                strategies[strategyIndex] = new MyStrategy(
+                        fastMath ? UnitMath.FAST : UnitMath.STRICT, directionCount
+                );
             }
 
+            long startTime = System.nanoTime();
+            int tickCount = 0;
+
             PlayerContext playerContext;
 
             while ((playerContext = remoteProcessClient.readPlayerContext()) != null) {
@@ -49,6 +150,13 @@ public final class Runner {
                 }
 
                 remoteProcessClient.writeMoves(moves);
+                ++tickCount;
+            }
+
+            if (replay) {
+                System.out.printf(
+                        "Replayed %d ticks in %d ms.%n", tickCount, (System.nanoTime() - startTime) / 1_000_000L
+                );
             }
         } finally {
             remoteProcessClient.close();
@@ -0,0 +1,43 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * TCP transport to the game server, the default one. Socket buffers are enlarged to hold a whole tick and Nagle's
+ * algorithm is disabled, so moves leave as soon as they are flushed.
+ */
+public final class TcpTransport implements Transport {
+    private static final int BUFFER_SIZE_BYTES = 1 << 20;
+
+    private final SocketChannel channel;
+
+    public TcpTransport(String host, int port) throws IOException {
+        channel = SocketChannel.open();
+
+        Socket socket = channel.socket();
+        socket.setSendBufferSize(BUFFER_SIZE_BYTES);
+        socket.setReceiveBufferSize(BUFFER_SIZE_BYTES);
+        socket.setTcpNoDelay(true);
+
+        channel.connect(new InetSocketAddress(host, port));
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        return channel.read(target);
+    }
+
+    @Override
+    public void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
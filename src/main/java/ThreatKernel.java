@@ -0,0 +1,118 @@
+import model.Unit;
+
+/**
+ * Precompiled damage estimate of one kind of threat at one danger level.
+ * <p>
+ * A threat deals its damage to a point if it is ready to attack, the point is within its range of the unit or of the
+ * position the unit reaches on the next tick, and the point lies in the unit's attack sector around its facing
+ * direction. Ranges are kept squared and the sector as a {@link FacingCone}, so an evaluation takes a few
+ * multiplications. Towers that are reloading only threaten points closer than the reload range.
+ */
+final class ThreatKernel {
+    static final ThreatKernel NONE = new ThreatKernel(0.0D, -1.0D, -1, StrictMath.PI, false);
+
+    private final double damage;
+    private final double range;
+    private final double squaredRange;
+    private final int maxCooldownTicks;
+    private final FacingCone sector;
+    private final boolean moving;
+
+    private final int reloadCooldownTicks;
+    private final double reloadRange;
+    private final double squaredReloadRange;
+
+    /**
+     * @param maxCooldownTicks the largest remaining cooldown at which the threat still counts
+     * @param halfAngle        half-angle of the attack sector; {@code StrictMath.PI} or more covers the full circle
+     * @param moving           whether the position of the unit on the next tick is checked too
+     */
+    ThreatKernel(double damage, double range, int maxCooldownTicks, double halfAngle, boolean moving) {
+        this(damage, range, maxCooldownTicks, halfAngle, moving, Integer.MAX_VALUE, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param reloadCooldownTicks while the remaining cooldown exceeds it, the range is limited to {@code reloadRange}
+     */
+    ThreatKernel(
+            double damage, double range, int maxCooldownTicks, double halfAngle, boolean moving,
+            int reloadCooldownTicks, double reloadRange) {
+        this.damage = damage;
+        this.range = range;
+        this.squaredRange = range < 0.0D ? -1.0D : range * range;
+        this.maxCooldownTicks = maxCooldownTicks;
+        this.sector = new FacingCone(halfAngle);
+        this.moving = moving;
+        this.reloadCooldownTicks = reloadCooldownTicks;
+        this.reloadRange = reloadRange;
+        this.squaredReloadRange = reloadRange * reloadRange;
+    }
+
+    double getDamage() {
+        return damage;
+    }
+
+    double getRange() {
+        return range;
+    }
+
+    /**
+     * @return how far from the unit the threat may reach on the next tick at the given cooldown and speed, or a
+     * negative value if it can't attack at all
+     */
+    double getReach(int cooldownTicks, double speed) {
+        if (damage == 0.0D || range < 0.0D || cooldownTicks > maxCooldownTicks) {
+            return -1.0D;
+        }
+
+        double reach = cooldownTicks > reloadCooldownTicks ? StrictMath.min(range, reloadRange) : range;
+        return moving ? reach + speed : reach;
+    }
+
+    /**
+     * @param facingX x component of the unit vector the unit faces along
+     * @param facingY y component of the unit vector the unit faces along
+     * @return the damage the unit threatens ({@code x}, {@code y}) with
+     */
+    double getDamage(Unit unit, int cooldownTicks, double facingX, double facingY, double x, double y) {
+        if (damage == 0.0D || cooldownTicks > maxCooldownTicks) {
+            return 0.0D;
+        }
+
+        double dx = x - unit.getX();
+        double dy = y - unit.getY();
+        double squaredDistance = dx * dx + dy * dy;
+
+        if (cooldownTicks > reloadCooldownTicks && squaredDistance > squaredReloadRange) {
+            return 0.0D;
+        }
+
+        if (squaredDistance > squaredRange && !isReachedOnNextTick(unit, x, y)) {
+            return 0.0D;
+        }
+
+        return sector.contains(dx, dy, squaredDistance, facingX, facingY) ? damage : 0.0D;
+    }
+
+    /**
+     * @return the damage a threat at ({@code sourceX}, {@code sourceY}) threatens ({@code x}, {@code y}) with, not
+     * taking cooldown, movement or facing into account
+     */
+    double getDamage(double sourceX, double sourceY, double x, double y) {
+        double dx = x - sourceX;
+        double dy = y - sourceY;
+        return damage != 0.0D && dx * dx + dy * dy <= squaredRange ? damage : 0.0D;
+    }
+
+    private boolean isReachedOnNextTick(Unit unit, double x, double y) {
+        double speedX = unit.getSpeedX();
+        double speedY = unit.getSpeedY();
+        if (!moving || speedX == 0.0D && speedY == 0.0D) {
+            return false;
+        }
+
+        double dx = x - (unit.getX() + speedX);
+        double dy = y - (unit.getY() + speedY);
+        return dx * dx + dy * dy <= squaredRange;
+    }
+}
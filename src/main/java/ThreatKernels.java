@@ -0,0 +1,115 @@
+import model.BuildingType;
+import model.Game;
+import model.MinionType;
+
+/**
+ * The {@link ThreatKernel}s of a game for every {@link Danger} level: enemy wizards, minions by {@link MinionType},
+ * buildings by {@link BuildingType} and remembered building marks by {@link BuildingType}.
+ * <p>
+ * Ranges include the radius of the strategy's wizard and grow by 30% at {@link Danger#HIGH}; wizard ranges also shrink
+ * by 20% at {@link Danger#LOW}. At {@link Danger#HIGH} attack sectors are widened tenfold. A sector admits a point if
+ * the angle to it is below half of the base sector, or below the widened sector plus the turn the unit can make
+ * before attacking, whichever is larger.
+ */
+final class ThreatKernels {
+    private static final Danger[] DANGERS = Danger.values();
+    private static final MinionType[] MINION_TYPES = MinionType.values();
+    private static final BuildingType[] BUILDING_TYPES = BuildingType.values();
+
+    private static final int WIZARD_MAX_COOLDOWN_TICKS = 40;
+    private static final int FETISH_MAX_COOLDOWN_TICKS = 10;
+    private static final double WOODCUTTER_EXTRA_RANGE = 150.0D;
+    private static final int TOWER_RELOAD_COOLDOWN_TICKS = 100;
+    private static final double TOWER_RELOAD_RANGE = 460.0D;
+
+    private final ThreatKernel[] wizardKernels = new ThreatKernel[DANGERS.length];
+    private final ThreatKernel[][] minionKernels = new ThreatKernel[DANGERS.length][MINION_TYPES.length];
+    private final ThreatKernel[][] buildingKernels = new ThreatKernel[DANGERS.length][BUILDING_TYPES.length];
+    private final ThreatKernel[][] buildingMarkKernels = new ThreatKernel[DANGERS.length][BUILDING_TYPES.length];
+
+    ThreatKernels(Game game) {
+        for (Danger danger : DANGERS) {
+            int d = danger.ordinal();
+            double sectorFactor = danger == Danger.HIGH ? 10.0D : 1.0D;
+            double rangeFactor = danger == Danger.HIGH ? 1.3D : 1.0D;
+            double wizardRangeFactor = danger == Danger.LOW ? 0.8D : rangeFactor;
+
+            wizardKernels[d] = new ThreatKernel(
+                    game.getStaffDamage(),
+                    (game.getWizardCastRange() + game.getWizardRadius()) * wizardRangeFactor,
+                    WIZARD_MAX_COOLDOWN_TICKS,
+                    getHalfAngle(game.getStaffSector(), sectorFactor, game.getWizardMaxTurnAngle()),
+                    true
+            );
+
+            for (MinionType type : MINION_TYPES) {
+                ThreatKernel kernel;
+                if (type == MinionType.FETISH_BLOWDART) {
+                    kernel = new ThreatKernel(
+                            game.getDartDirectDamage(),
+                            (game.getFetishBlowdartAttackRange() + game.getMinionRadius() + game.getWizardRadius())
+                                    * rangeFactor,
+                            FETISH_MAX_COOLDOWN_TICKS,
+                            getHalfAngle(game.getFetishBlowdartAttackSector(), sectorFactor,
+                                    game.getFetishBlowdartAttackSector()),
+                            true
+                    );
+                } else {
+                    kernel = new ThreatKernel(
+                            game.getOrcWoodcutterDamage(),
+                            (game.getOrcWoodcutterAttackRange() + WOODCUTTER_EXTRA_RANGE) * rangeFactor,
+                            Integer.MAX_VALUE,
+                            getHalfAngle(game.getOrcWoodcutterAttackSector(), sectorFactor,
+                                    game.getOrcWoodcutterAttackSector()),
+                            true
+                    );
+                }
+                minionKernels[d][type.ordinal()] = kernel;
+            }
+
+            double towerRange = (game.getGuardianTowerRadius() + game.getGuardianTowerAttackRange()) * rangeFactor;
+            for (BuildingType type : BUILDING_TYPES) {
+                if (type == BuildingType.GUARDIAN_TOWER) {
+                    buildingKernels[d][type.ordinal()] = new ThreatKernel(
+                            game.getGuardianTowerDamage(), towerRange, Integer.MAX_VALUE, StrictMath.PI, false,
+                            TOWER_RELOAD_COOLDOWN_TICKS, TOWER_RELOAD_RANGE
+                    );
+                    buildingMarkKernels[d][type.ordinal()] = new ThreatKernel(
+                            game.getGuardianTowerDamage(), towerRange, Integer.MAX_VALUE, StrictMath.PI, false
+                    );
+                } else if (type == BuildingType.FACTION_BASE) {
+                    // live faction bases are not counted as threats, only their marks are
+                    buildingKernels[d][type.ordinal()] = ThreatKernel.NONE;
+                    buildingMarkKernels[d][type.ordinal()] = new ThreatKernel(
+                            game.getFactionBaseDamage(),
+                            (game.getFactionBaseRadius() + game.getFactionBaseAttackRange()) * rangeFactor,
+                            Integer.MAX_VALUE, StrictMath.PI, false
+                    );
+                } else {
+                    buildingKernels[d][type.ordinal()] = ThreatKernel.NONE;
+                    buildingMarkKernels[d][type.ordinal()] = ThreatKernel.NONE;
+                }
+            }
+        }
+    }
+
+    ThreatKernel getWizardKernel(Danger danger) {
+        return wizardKernels[danger.ordinal()];
+    }
+
+    ThreatKernel getMinionKernel(Danger danger, MinionType type) {
+        return minionKernels[danger.ordinal()][type.ordinal()];
+    }
+
+    ThreatKernel getBuildingKernel(Danger danger, BuildingType type) {
+        return buildingKernels[danger.ordinal()][type.ordinal()];
+    }
+
+    ThreatKernel getBuildingMarkKernel(Danger danger, BuildingType type) {
+        return buildingMarkKernels[danger.ordinal()][type.ordinal()];
+    }
+
+    private static double getHalfAngle(double sector, double sectorFactor, double turnAngle) {
+        return StrictMath.max(sector / 2.0D, sector * sectorFactor + turnAngle);
+    }
+}
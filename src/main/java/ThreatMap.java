@@ -0,0 +1,328 @@
+import java.util.Arrays;
+
+/**
+ * Coarse grid over the map counting, for every cell, the threat footprints that touch it.
+ * <p>
+ * The map is only an early-out filter, it doesn't estimate damage. Footprints must be conservative: a point whose cell
+ * no footprint touches is out of reach of every threat, so the exact per-unit damage estimate can be skipped there.
+ * Points anywhere else still need the exact estimate. Footprints dealing no damage are left out.
+ * <p>
+ * The map persists between ticks and is kept in two layers. Static footprints (buildings and remembered building
+ * marks) are listed in a stable order every tick and the static layer is re-rasterised only if that list differs from
+ * the previous one. Dynamic footprints are keyed by unit id: a footprint that didn't change costs a lookup, one that
+ * changed is subtracted and added back, and one that wasn't put again during a tick is subtracted at its end.
+ */
+final class ThreatMap {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double EPSILON = 1.0E-6D;
+
+    private final double width;
+    private final double height;
+    private final double cellSize;
+    private final int columnCount;
+    private final int rowCount;
+
+    private final int[] coverages;
+
+    private final Footprints staticFootprints = new Footprints();
+    private final Footprints pendingStaticFootprints = new Footprints();
+    private boolean staticChanged;
+
+    private final Footprints dynamicFootprints = new Footprints();
+    private long[] dynamicIds = new long[INITIAL_CAPACITY];
+    private boolean[] dynamicSeen = new boolean[INITIAL_CAPACITY];
+    private final SlotIndex dynamicSlots = new SlotIndex();
+
+    ThreatMap(double width, double height, double cellSize) {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.columnCount = StrictMath.max(1, (int) StrictMath.ceil(width / cellSize));
+        this.rowCount = StrictMath.max(1, (int) StrictMath.ceil(height / cellSize));
+        this.coverages = new int[columnCount * rowCount];
+    }
+
+    /**
+     * Starts listing the footprints of a tick.
+     */
+    void beginTick() {
+        pendingStaticFootprints.clear();
+        staticChanged = false;
+        Arrays.fill(dynamicSeen, 0, dynamicFootprints.count, false);
+    }
+
+    /**
+     * Lists the next static footprint of the tick: a circle of {@code radius} at ({@code x}, {@code y}).
+     */
+    void addStaticCircle(double x, double y, double radius, double damage) {
+        int index = pendingStaticFootprints.count;
+        staticChanged |= index >= staticFootprints.count
+                || !staticFootprints.equals(index, x, y, radius, damage);
+        pendingStaticFootprints.add(x, y, radius, damage);
+    }
+
+    /**
+     * Sets the footprint of the dynamic source {@code id} for this tick: a circle of {@code radius} at
+     * ({@code x}, {@code y}).
+     */
+    void putDynamicCircle(long id, double x, double y, double radius, double damage) {
+        int slot = dynamicSlots.get(id);
+
+        if (slot >= 0) {
+            dynamicSeen[slot] = true;
+            if (dynamicFootprints.equals(slot, x, y, radius, damage)) {
+                return;
+            }
+
+            rasterize(dynamicFootprints, slot, -1);
+            dynamicFootprints.set(slot, x, y, radius, damage);
+            rasterize(dynamicFootprints, slot, 1);
+            return;
+        }
+
+        slot = dynamicFootprints.count;
+        dynamicFootprints.add(x, y, radius, damage);
+        if (slot == dynamicIds.length) {
+            dynamicIds = Arrays.copyOf(dynamicIds, slot * 2);
+            dynamicSeen = Arrays.copyOf(dynamicSeen, slot * 2);
+        }
+        dynamicIds[slot] = id;
+        dynamicSeen[slot] = true;
+        dynamicSlots.put(id, slot, dynamicFootprints.count);
+        rasterize(dynamicFootprints, slot, 1);
+    }
+
+    /**
+     * Applies the static footprint list if it changed and removes the dynamic footprints that weren't put this tick.
+     */
+    void endTick() {
+        if (staticChanged || pendingStaticFootprints.count != staticFootprints.count) {
+            for (int index = 0; index < staticFootprints.count; ++index) {
+                rasterize(staticFootprints, index, -1);
+            }
+
+            staticFootprints.copyFrom(pendingStaticFootprints);
+
+            for (int index = 0; index < staticFootprints.count; ++index) {
+                rasterize(staticFootprints, index, 1);
+            }
+        }
+
+        int retainedCount = 0;
+        for (int slot = 0; slot < dynamicFootprints.count; ++slot) {
+            if (!dynamicSeen[slot]) {
+                rasterize(dynamicFootprints, slot, -1);
+                continue;
+            }
+
+            if (retainedCount != slot) {
+                dynamicFootprints.move(slot, retainedCount);
+                dynamicIds[retainedCount] = dynamicIds[slot];
+            }
+            ++retainedCount;
+        }
+
+        if (retainedCount != dynamicFootprints.count) {
+            dynamicFootprints.count = retainedCount;
+            dynamicSlots.reset(retainedCount);
+            for (int slot = 0; slot < retainedCount; ++slot) {
+                dynamicSlots.put(dynamicIds[slot], slot, retainedCount);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if no footprint reaches ({@code x}, {@code y}); points outside of the map are never reported
+     * as out of reach
+     */
+    boolean isOutOfReach(double x, double y) {
+        if (!(x >= 0.0D && x <= width && y >= 0.0D && y <= height)) {
+            return false;
+        }
+
+        return coverages[getRow(y) * columnCount + getColumn(x)] == 0;
+    }
+
+    /**
+     * Counts ({@code sign} 1) or uncounts ({@code sign} -1) a footprint in every cell its circle touches.
+     */
+    private void rasterize(Footprints footprints, int index, int sign) {
+        double x = footprints.xs[index];
+        double y = footprints.ys[index];
+        double radius = footprints.radii[index];
+
+        if (radius < 0.0D || footprints.damages[index] == 0.0D) {
+            return;
+        }
+
+        double reach = radius + EPSILON;
+        double squaredReach = reach * reach;
+        int minRow = getRow(y - reach);
+        int maxRow = getRow(y + reach);
+
+        for (int row = minRow; row <= maxRow; ++row) {
+            double dy = StrictMath.max(0.0D, StrictMath.max(row * cellSize - y, y - (row + 1) * cellSize));
+            double squaredDy = dy * dy;
+            if (squaredDy > squaredReach) {
+                continue;
+            }
+
+            double halfWidth = StrictMath.sqrt(squaredReach - squaredDy);
+            int minColumn = getColumn(x - halfWidth);
+            int maxColumn = getColumn(x + halfWidth);
+
+            for (int cell = row * columnCount + minColumn, lastCell = row * columnCount + maxColumn;
+                 cell <= lastCell; ++cell) {
+                coverages[cell] += sign;
+            }
+        }
+    }
+
+    private int getColumn(double x) {
+        return StrictMath.min(columnCount - 1, StrictMath.max(0, (int) StrictMath.floor(x / cellSize)));
+    }
+
+    private int getRow(double y) {
+        return StrictMath.min(rowCount - 1, StrictMath.max(0, (int) StrictMath.floor(y / cellSize)));
+    }
+
+    /**
+     * Circular footprints in parallel arrays.
+     */
+    private static final class Footprints {
+        private double[] xs = new double[INITIAL_CAPACITY];
+        private double[] ys = new double[INITIAL_CAPACITY];
+        private double[] radii = new double[INITIAL_CAPACITY];
+        private double[] damages = new double[INITIAL_CAPACITY];
+        private int count;
+
+        void clear() {
+            count = 0;
+        }
+
+        void add(double x, double y, double radius, double damage) {
+            ensureCapacity(count + 1);
+            set(count++, x, y, radius, damage);
+        }
+
+        void set(int index, double x, double y, double radius, double damage) {
+            xs[index] = x;
+            ys[index] = y;
+            radii[index] = radius;
+            damages[index] = damage;
+        }
+
+        void move(int from, int to) {
+            set(to, xs[from], ys[from], radii[from], damages[from]);
+        }
+
+        boolean equals(int index, double x, double y, double radius, double damage) {
+            return xs[index] == x && ys[index] == y && radii[index] == radius && damages[index] == damage;
+        }
+
+        void copyFrom(Footprints footprints) {
+            ensureCapacity(footprints.count);
+            System.arraycopy(footprints.xs, 0, xs, 0, footprints.count);
+            System.arraycopy(footprints.ys, 0, ys, 0, footprints.count);
+            System.arraycopy(footprints.radii, 0, radii, 0, footprints.count);
+            System.arraycopy(footprints.damages, 0, damages, 0, footprints.count);
+            count = footprints.count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= xs.length) {
+                return;
+            }
+
+            int newCapacity = StrictMath.max(capacity, xs.length * 2);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            radii = Arrays.copyOf(radii, newCapacity);
+            damages = Arrays.copyOf(damages, newCapacity);
+        }
+    }
+
+    /**
+     * Open-addressing map from unit id to the slot of its dynamic footprint.
+     */
+    private static final class SlotIndex {
+        private long[] keys = new long[INITIAL_CAPACITY * 2];
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+        private int mask = INITIAL_CAPACITY * 2 - 1;
+
+        SlotIndex() {
+            Arrays.fill(slots, -1);
+        }
+
+        int get(long key) {
+            for (int position = positionOf(key); slots[position] >= 0; position = (position + 1) & mask) {
+                if (keys[position] == key) {
+                    return slots[position];
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Maps a key that isn't in the index yet, growing the table if it would hold more than {@code size} / 2.
+         */
+        void put(long key, int slot, int size) {
+            if (size * 2 > mask + 1) {
+                long[] oldKeys = keys;
+                int[] oldSlots = slots;
+                int capacity = mask + 1;
+
+                while (capacity < size * 2) {
+                    capacity <<= 1;
+                }
+
+                keys = new long[capacity];
+                slots = new int[capacity];
+                mask = capacity - 1;
+                Arrays.fill(slots, -1);
+
+                for (int position = 0; position < oldSlots.length; ++position) {
+                    if (oldSlots[position] >= 0) {
+                        insert(oldKeys[position], oldSlots[position]);
+                    }
+                }
+            }
+
+            insert(key, slot);
+        }
+
+        /**
+         * Removes all entries and makes room for {@code expectedSize} of them at a load factor of at most one half.
+         */
+        void reset(int expectedSize) {
+            int capacity = mask + 1;
+            if (capacity < expectedSize * 2) {
+                while (capacity < expectedSize * 2) {
+                    capacity <<= 1;
+                }
+
+                keys = new long[capacity];
+                slots = new int[capacity];
+                mask = capacity - 1;
+            }
+
+            Arrays.fill(slots, -1);
+        }
+
+        private void insert(long key, int slot) {
+            int position = positionOf(key);
+            while (slots[position] >= 0) {
+                position = (position + 1) & mask;
+            }
+
+            keys[position] = key;
+            slots[position] = slot;
+        }
+
+        private int positionOf(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Byte stream between the client and the game server, decoupled from the protocol codec in
+ * {@link RemoteProcessClient}.
+ */
+public interface Transport extends Closeable {
+    /**
+     * Reads available bytes into {@code target}, blocking until at least one byte is available.
+     *
+     * @return the number of bytes read or {@code -1} at the end of the stream
+     */
+    int read(ByteBuffer target) throws IOException;
+
+    /**
+     * Writes all remaining bytes of {@code source}.
+     */
+    void write(ByteBuffer source) throws IOException;
+}
@@ -0,0 +1,111 @@
+import model.LivingUnit;
+import model.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Units around the strategy's wizard split into fixed buckets, refilled every tick.
+ * <p>
+ * Each bucket owns a reusable list, a {@link NearestTracker} and a {@link UnitGrid}. After {@link #sort(Unit)} every
+ * list is ordered by distance to the origin and its grid is built from that order. {@link Kind#ENEMIES} is not filled
+ * directly: it is merged from the sorted enemy wizard, minion and building buckets, equal distances keeping that
+ * bucket order, which is what a stable sort of their concatenation gives.
+ */
+final class UnitBuckets {
+    enum Kind {
+        FRIENDLY_WIZARDS,
+        ENEMY_WIZARDS,
+        FRIENDLY_MINIONS,
+        ENEMY_MINIONS,
+        NEUTRAL_UNITS,
+        FRIENDLY_BUILDINGS,
+        ENEMY_BUILDINGS,
+        ENEMIES
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final Kind[] ENEMY_KINDS = {Kind.ENEMY_WIZARDS, Kind.ENEMY_MINIONS, Kind.ENEMY_BUILDINGS};
+
+    private final List<List<LivingUnit>> units = new ArrayList<>(KINDS.length);
+    private final List<NearestTracker<LivingUnit>> trackers = new ArrayList<>(KINDS.length);
+    private final UnitGrid[] grids = new UnitGrid[KINDS.length];
+    private final int[] mergeCursors = new int[ENEMY_KINDS.length];
+
+    /**
+     * @param math distances the buckets are sorted by
+     */
+    UnitBuckets(double width, double height, double cellSize, UnitMath math) {
+        for (Kind kind : KINDS) {
+            units.add(new ArrayList<>());
+            trackers.add(new NearestTracker<>(math));
+            grids[kind.ordinal()] = new UnitGrid(width, height, cellSize);
+        }
+    }
+
+    void clear() {
+        for (List<LivingUnit> bucket : units) {
+            bucket.clear();
+        }
+    }
+
+    void add(Kind kind, LivingUnit unit) {
+        units.get(kind.ordinal()).add(unit);
+    }
+
+    /**
+     * Sorts every bucket by distance to {@code origin}, merges the enemy buckets and rebuilds the grids.
+     */
+    void sort(Unit origin) {
+        for (Kind kind : KINDS) {
+            if (kind != Kind.ENEMIES) {
+                trackers.get(kind.ordinal()).sort(units.get(kind.ordinal()), origin);
+            }
+        }
+
+        mergeEnemies();
+
+        for (Kind kind : KINDS) {
+            grids[kind.ordinal()].build(units.get(kind.ordinal()));
+        }
+    }
+
+    List<LivingUnit> get(Kind kind) {
+        return units.get(kind.ordinal());
+    }
+
+    UnitGrid getGrid(Kind kind) {
+        return grids[kind.ordinal()];
+    }
+
+    private void mergeEnemies() {
+        List<LivingUnit> enemies = units.get(Kind.ENEMIES.ordinal());
+        int enemyCount = 0;
+
+        for (int bucketIndex = 0; bucketIndex < ENEMY_KINDS.length; ++bucketIndex) {
+            mergeCursors[bucketIndex] = 0;
+            enemyCount += units.get(ENEMY_KINDS[bucketIndex].ordinal()).size();
+        }
+
+        while (enemies.size() < enemyCount) {
+            int nearestBucketIndex = -1;
+            double nearestDistance = Double.POSITIVE_INFINITY;
+
+            for (int bucketIndex = 0; bucketIndex < ENEMY_KINDS.length; ++bucketIndex) {
+                int ordinal = ENEMY_KINDS[bucketIndex].ordinal();
+                int cursor = mergeCursors[bucketIndex];
+
+                if (cursor < units.get(ordinal).size()) {
+                    double distance = trackers.get(ordinal).getDistance(cursor);
+                    // strict comparison: on equal distances the earlier bucket wins
+                    if (nearestBucketIndex < 0 || distance < nearestDistance) {
+                        nearestBucketIndex = bucketIndex;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+
+            enemies.add(units.get(ENEMY_KINDS[nearestBucketIndex].ordinal()).get(mergeCursors[nearestBucketIndex]++));
+        }
+    }
+}
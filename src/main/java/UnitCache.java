@@ -0,0 +1,151 @@
+/**
+ * Open-addressing {@code long}-keyed map of the units the decoder may be asked to reuse (flag {@code 100}).
+ * <p>
+ * Every entry remembers the generation (frame) it was last seen in. Entries that have not been seen for more than
+ * a given number of generations are dropped by {@link #evict(int)}, so units that left the game do not stay
+ * reachable until the end of it. Only caches of units that can't come back may be evicted: the server reuses any
+ * unit it sent before, however long ago.
+ */
+final class UnitCache<V> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+    private int generation;
+
+    int getGeneration() {
+        return generation;
+    }
+
+    void nextGeneration() {
+        ++generation;
+    }
+
+    /**
+     * @return the value stored for {@code key} or {@code null}; a found entry is marked as seen in this generation
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        for (int slot = slotOf(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                generations[slot] = generation;
+                return (V) values[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the generation {@code key} was last seen in before this call or {@code -1} if it was absent
+     */
+    int put(long key, V value) {
+        int slot = slotOf(key);
+
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previousGeneration = generations[slot];
+                values[slot] = value;
+                generations[slot] = generation;
+                return previousGeneration;
+            }
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        generations[slot] = generation;
+
+        if (++size > (mask + 1) >>> 1) {
+            resize();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes entries that have not been seen for more than {@code maxAge} generations.
+     */
+    void evict(int maxAge) {
+        for (int slot = 0; slot <= mask; ) {
+            if (values[slot] != null && generation - generations[slot] > maxAge) {
+                remove(slot);
+            } else {
+                ++slot;
+            }
+        }
+    }
+
+    /**
+     * Writes the keys of the entries last seen exactly in {@code generation} into {@code target}, which must hold at
+     * least {@link #size()} elements.
+     *
+     * @return the number of keys written
+     */
+    int getKeysLastSeenIn(int generation, long[] target) {
+        int count = 0;
+
+        for (int slot = 0; slot <= mask; ++slot) {
+            if (values[slot] != null && generations[slot] == generation) {
+                target[count++] = keys[slot];
+            }
+        }
+
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void remove(int slot) {
+        int hole = slot;
+
+        for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                generations[hole] = generations[next];
+                hole = next;
+            }
+        }
+
+        values[hole] = null;
+        --size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldGenerations = generations;
+        int capacity = oldKeys.length << 1;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        generations = new int[capacity];
+        mask = capacity - 1;
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; ++oldSlot) {
+            if (oldValues[oldSlot] != null) {
+                int slot = slotOf(oldKeys[oldSlot]);
+
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = oldKeys[oldSlot];
+                values[slot] = oldValues[oldSlot];
+                generations[slot] = oldGenerations[oldSlot];
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
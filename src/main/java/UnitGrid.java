@@ -0,0 +1,205 @@
+import model.LivingUnit;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the centres of a list of units, rebuilt in place every tick.
+ * <p>
+ * Queries test unit centres only and report matches as indices into the list the grid was built from, in ascending
+ * order, so callers that care about the order of the original list keep it. A query costs the number of cells its
+ * bounding box covers plus the number of units in those cells.
+ */
+final class UnitGrid {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final double cellSize;
+    private final int columnCount;
+    private final int rowCount;
+    private final int[] cellStarts;
+    private final int[] cellCursors;
+
+    private LivingUnit[] units = new LivingUnit[INITIAL_CAPACITY];
+    private int[] unitCells = new int[INITIAL_CAPACITY];
+    private double[] facingXs = new double[INITIAL_CAPACITY];
+    private double[] facingYs = new double[INITIAL_CAPACITY];
+    private int[] cellEntries = new int[INITIAL_CAPACITY];
+    private int unitCount;
+    private double maxRadius;
+    private double maxSpeed;
+
+    private int[] result = new int[INITIAL_CAPACITY];
+
+    UnitGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columnCount = StrictMath.max(1, (int) StrictMath.ceil(width / cellSize));
+        this.rowCount = StrictMath.max(1, (int) StrictMath.ceil(height / cellSize));
+        this.cellStarts = new int[columnCount * rowCount + 1];
+        this.cellCursors = new int[columnCount * rowCount];
+    }
+
+    void build(List<? extends LivingUnit> units) {
+        int unitCount = units.size();
+
+        if (unitCount > this.units.length) {
+            int capacity = StrictMath.max(unitCount, this.units.length * 2);
+            this.units = new LivingUnit[capacity];
+            this.unitCells = new int[capacity];
+            this.facingXs = new double[capacity];
+            this.facingYs = new double[capacity];
+            this.cellEntries = new int[capacity];
+            this.result = new int[capacity];
+        } else if (unitCount < this.unitCount) {
+            Arrays.fill(this.units, unitCount, this.unitCount, null);
+        }
+
+        this.unitCount = unitCount;
+        maxRadius = 0.0D;
+        maxSpeed = 0.0D;
+        Arrays.fill(cellStarts, 0);
+
+        for (int unitIndex = 0; unitIndex < unitCount; ++unitIndex) {
+            LivingUnit unit = units.get(unitIndex);
+            int cell = getRow(unit.getY()) * columnCount + getColumn(unit.getX());
+
+            this.units[unitIndex] = unit;
+            unitCells[unitIndex] = cell;
+            facingXs[unitIndex] = StrictMath.cos(unit.getAngle());
+            facingYs[unitIndex] = StrictMath.sin(unit.getAngle());
+            ++cellStarts[cell + 1];
+
+            double speedX = unit.getSpeedX();
+            double speedY = unit.getSpeedY();
+            maxRadius = StrictMath.max(maxRadius, unit.getRadius());
+            maxSpeed = StrictMath.max(maxSpeed, StrictMath.sqrt(speedX * speedX + speedY * speedY));
+        }
+
+        for (int cell = 0; cell < cellCursors.length; ++cell) {
+            cellStarts[cell + 1] += cellStarts[cell];
+            cellCursors[cell] = cellStarts[cell];
+        }
+
+        for (int unitIndex = 0; unitIndex < unitCount; ++unitIndex) {
+            cellEntries[cellCursors[unitCells[unitIndex]]++] = unitIndex;
+        }
+    }
+
+    int getUnitCount() {
+        return unitCount;
+    }
+
+    LivingUnit getUnit(int unitIndex) {
+        return units[unitIndex];
+    }
+
+    /**
+     * @return the x component of the unit vector the unit at {@code unitIndex} faces along
+     */
+    double getFacingX(int unitIndex) {
+        return facingXs[unitIndex];
+    }
+
+    /**
+     * @return the y component of the unit vector the unit at {@code unitIndex} faces along
+     */
+    double getFacingY(int unitIndex) {
+        return facingYs[unitIndex];
+    }
+
+    /**
+     * @return the largest radius among the units, to widen centre queries into overlap queries
+     */
+    double getMaxRadius() {
+        return maxRadius;
+    }
+
+    /**
+     * @return the largest speed among the units, to widen centre queries to positions one tick ahead
+     */
+    double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    /**
+     * @return the index of the {@code resultIndex}-th match of the last query
+     */
+    int getResult(int resultIndex) {
+        return result[resultIndex];
+    }
+
+    /**
+     * Finds the units whose centres are at most {@code radius} away from ({@code x}, {@code y}).
+     *
+     * @return the number of matches
+     */
+    int queryCircle(double x, double y, double radius) {
+        return query(x, y, radius, null, 0.0D, 0.0D);
+    }
+
+    /**
+     * Finds the units whose centres are at most {@code radius} away from ({@code x}, {@code y}) and lie in
+     * {@code cone} around the unit vector ({@code facingX}, {@code facingY}). A unit exactly at the apex always
+     * matches.
+     *
+     * @return the number of matches
+     */
+    int querySector(double x, double y, double radius, FacingCone cone, double facingX, double facingY) {
+        if (cone.isFullCircle()) {
+            return queryCircle(x, y, radius);
+        }
+
+        return query(x, y, radius, cone, facingX, facingY);
+    }
+
+    /**
+     * @param cone cone the units must lie in, or {@code null} for none
+     */
+    private int query(double x, double y, double radius, FacingCone cone, double facingX, double facingY) {
+        int resultCount = 0;
+
+        if (unitCount == 0 || radius < 0.0D) {
+            return resultCount;
+        }
+
+        double squaredRadius = radius * radius;
+
+        int minColumn = getColumn(x - radius);
+        int maxColumn = getColumn(x + radius);
+        int minRow = getRow(y - radius);
+        int maxRow = getRow(y + radius);
+
+        for (int row = minRow; row <= maxRow; ++row) {
+            for (int cell = row * columnCount + minColumn, lastCell = row * columnCount + maxColumn;
+                 cell <= lastCell; ++cell) {
+                for (int entry = cellStarts[cell], end = cellStarts[cell + 1]; entry < end; ++entry) {
+                    int unitIndex = cellEntries[entry];
+                    LivingUnit unit = units[unitIndex];
+                    double dx = unit.getX() - x;
+                    double dy = unit.getY() - y;
+                    double squaredDistance = dx * dx + dy * dy;
+
+                    if (squaredDistance > squaredRadius) {
+                        continue;
+                    }
+
+                    if (cone != null && !cone.contains(dx, dy, squaredDistance, facingX, facingY)) {
+                        continue;
+                    }
+
+                    result[resultCount++] = unitIndex;
+                }
+            }
+        }
+
+        Arrays.sort(result, 0, resultCount);
+        return resultCount;
+    }
+
+    private int getColumn(double x) {
+        return StrictMath.min(columnCount - 1, StrictMath.max(0, (int) StrictMath.floor(x / cellSize)));
+    }
+
+    private int getRow(double y) {
+        return StrictMath.min(rowCount - 1, StrictMath.max(0, (int) StrictMath.floor(y / cellSize)));
+    }
+}
@@ -0,0 +1,100 @@
+import model.Unit;
+
+/**
+ * Distance and angle primitives a strategy computes with.
+ * <p>
+ * {@link #STRICT} gives the same results as {@link Unit#getDistanceTo(double, double)} and
+ * {@link Unit#getAngleTo(double, double)}, which use {@code StrictMath.hypot} and {@code StrictMath.atan2}. {@link #FAST}
+ * takes distances with {@code Math.sqrt} and angles with a polynomial arctangent whose error stays below
+ * {@link #FAST_ANGLE_ERROR}, trading bit-exact replays for speed. Range checks that don't need the distance itself are
+ * better done with {@link Unit#isWithin(Unit, double)} in either mode.
+ */
+final class UnitMath {
+    static final UnitMath STRICT = new UnitMath(false);
+    static final UnitMath FAST = new UnitMath(true);
+
+    /**
+     * Largest difference between {@link #atan2(double, double)} of {@link #FAST} and {@code StrictMath.atan2}, in
+     * radians.
+     */
+    static final double FAST_ANGLE_ERROR = 1.0E-5D;
+
+    private static final double HALF_PI = StrictMath.PI / 2.0D;
+
+    // odd minimax polynomial for atan on [0, 1]
+    private static final double ATAN_1 = 0.99997726D;
+    private static final double ATAN_3 = -0.33262347D;
+    private static final double ATAN_5 = 0.19354346D;
+    private static final double ATAN_7 = -0.11643287D;
+    private static final double ATAN_9 = 0.05265332D;
+    private static final double ATAN_11 = -0.01172120D;
+
+    private final boolean fast;
+
+    private UnitMath(boolean fast) {
+        this.fast = fast;
+    }
+
+    double hypot(double dx, double dy) {
+        return fast ? Math.sqrt(dx * dx + dy * dy) : StrictMath.hypot(dx, dy);
+    }
+
+    double atan2(double y, double x) {
+        return fast ? fastAtan2(y, x) : StrictMath.atan2(y, x);
+    }
+
+    double getDistanceTo(Unit unit, double x, double y) {
+        return hypot(x - unit.getX(), y - unit.getY());
+    }
+
+    double getDistanceTo(Unit unit, Unit other) {
+        return getDistanceTo(unit, other.getX(), other.getY());
+    }
+
+    /**
+     * Same as {@link Unit#getAngleTo(double, double)}.
+     */
+    double getAngleTo(Unit unit, double x, double y) {
+        double relativeAngleTo = atan2(y - unit.getY(), x - unit.getX()) - unit.getAngle();
+
+        while (relativeAngleTo > StrictMath.PI) {
+            relativeAngleTo -= 2.0D * StrictMath.PI;
+        }
+
+        while (relativeAngleTo < -StrictMath.PI) {
+            relativeAngleTo += 2.0D * StrictMath.PI;
+        }
+
+        return relativeAngleTo;
+    }
+
+    double getAngleTo(Unit unit, Unit other) {
+        return getAngleTo(unit, other.getX(), other.getY());
+    }
+
+    /**
+     * Reduces the angle to the first octant, where the polynomial is accurate, and maps the result back. Signed zeros
+     * aren't told apart: {@code (-0.0, x)} for negative {@code x} gives {@code PI}, not {@code -PI}.
+     */
+    private static double fastAtan2(double y, double x) {
+        double absX = StrictMath.abs(x);
+        double absY = StrictMath.abs(y);
+        double max = StrictMath.max(absX, absY);
+        if (max == 0.0D) {
+            return 0.0D;
+        }
+
+        double z = StrictMath.min(absX, absY) / max;
+        double squaredZ = z * z;
+        double angle = z * (ATAN_1 + squaredZ * (ATAN_3 + squaredZ * (ATAN_5 + squaredZ * (ATAN_7
+                + squaredZ * (ATAN_9 + squaredZ * ATAN_11)))));
+
+        if (absY > absX) {
+            angle = HALF_PI - angle;
+        }
+        if (x < 0.0D) {
+            angle = StrictMath.PI - angle;
+        }
+        return y < 0.0D ? -angle : angle;
+    }
+}
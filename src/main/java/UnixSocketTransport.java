@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Unix domain socket transport for games against a local server.
+ * <p>
+ * Unix domain socket channels appeared in Java 16 while the package still compiles for Java 8, so the channel is
+ * opened reflectively, once per game. This is the only reflection on the connection path and it runs only when the
+ * transport is selected; for ahead-of-time compilation the two methods are registered in the
+ * {@code META-INF/native-image} reflection configuration.
+ */
+public final class UnixSocketTransport implements Transport {
+    private final SocketChannel channel;
+
+    public UnixSocketTransport(String path) throws IOException {
+        channel = open(path);
+    }
+
+    private static SocketChannel open(String path) throws IOException {
+        ProtocolFamily protocolFamily;
+        SocketAddress address;
+        SocketChannel channel;
+
+        try {
+            protocolFamily = StandardProtocolFamily.valueOf("UNIX");
+            address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", String.class).invoke(null, path);
+            channel = (SocketChannel) SocketChannel.class
+                    .getMethod("open", ProtocolFamily.class).invoke(null, protocolFamily);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e.getCause());
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            throw new IOException("Unix domain sockets require Java 16 or newer.", e);
+        }
+
+        try {
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return channel;
+    }
+
+    /**
+     * Rethrows what the reflectively called method threw, e.g. {@code InvalidPathException} for a bad path.
+     */
+    private static IOException rethrow(Throwable cause) throws IOException {
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        return new IOException(cause);
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        return channel.read(target);
+    }
+
+    @Override
+    public void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -17,7 +17,17 @@ public class Building extends LivingUnit {
             long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
             int life, int maxLife, Status[] statuses, BuildingType type, double visionRange, double attackRange,
             int damage, int cooldownTicks, int remainingActionCooldownTicks) {
-        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses);
+        this(
+                id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, type, visionRange,
+                attackRange, damage, cooldownTicks, remainingActionCooldownTicks, true
+        );
+    }
+
+    public Building(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
+            int life, int maxLife, Status[] statuses, BuildingType type, double visionRange, double attackRange,
+            int damage, int cooldownTicks, int remainingActionCooldownTicks, boolean copyArrays) {
+        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, copyArrays);
 
         this.type = type;
         this.visionRange = visionRange;
@@ -0,0 +1,43 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Юниты одного типа, сгруппированные по фракциям. Внутри фракции юниты идут в том же порядке, что и в исходном
+ * списке. Юниты без фракции в группы не попадают.
+ */
+final class FactionPartition<U extends Unit> {
+    private static final Faction[] FACTIONS = Faction.values();
+
+    private final U[] units;
+    private final int[] offsets = new int[FACTIONS.length + 1];
+
+    FactionPartition(U[] units) {
+        for (U unit : units) {
+            if (unit != null && unit.getFaction() != null) {
+                ++offsets[unit.getFaction().ordinal() + 1];
+            }
+        }
+
+        for (int factionIndex = 0; factionIndex < FACTIONS.length; ++factionIndex) {
+            offsets[factionIndex + 1] += offsets[factionIndex];
+        }
+
+        this.units = Arrays.copyOf(units, offsets[FACTIONS.length]);
+        int[] positions = Arrays.copyOf(offsets, FACTIONS.length);
+
+        for (U unit : units) {
+            if (unit != null && unit.getFaction() != null) {
+                this.units[positions[unit.getFaction().ordinal()]++] = unit;
+            }
+        }
+    }
+
+    int getCount(Faction faction) {
+        return offsets[faction.ordinal() + 1] - offsets[faction.ordinal()];
+    }
+
+    U get(Faction faction, int index) {
+        return units[offsets[faction.ordinal()] + index];
+    }
+}
@@ -10,15 +10,34 @@ public abstract class LivingUnit extends CircularUnit {
     private final int life;
     private final int maxLife;
     private final Status[] statuses;
+    private final int statusMask;
 
     protected LivingUnit(
             long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
             int life, int maxLife, Status[] statuses) {
+        this(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, true);
+    }
+
+    /**
+     * Если {@code copyArrays} равно {@code false}, объект забирает массив {@code statuses} себе без копирования,
+     * и вызывающий код не должен больше его изменять.
+     */
+    protected LivingUnit(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
+            int life, int maxLife, Status[] statuses, boolean copyArrays) {
         super(id, x, y, speedX, speedY, angle, faction, radius);
 
         this.life = life;
         this.maxLife = maxLife;
-        this.statuses = Arrays.copyOf(statuses, statuses.length);
+        this.statuses = copyArrays ? Arrays.copyOf(statuses, statuses.length) : statuses;
+
+        int statusMask = 0;
+        for (Status status : statuses) {
+            if (status != null && status.getType() != null) {
+                statusMask |= 1 << status.getType().ordinal();
+            }
+        }
+        this.statusMask = statusMask;
     }
 
     /**
@@ -41,4 +60,33 @@ public abstract class LivingUnit extends CircularUnit {
     public Status[] getStatuses() {
         return Arrays.copyOf(statuses, statuses.length);
     }
+
+    /**
+     * @return Возвращает количество магических статусов, влияющих на живого юнита.
+     */
+    public int getStatusCount() {
+        return statuses.length;
+    }
+
+    /**
+     * @return Возвращает магический статус с индексом {@code index} без копирования массива статусов.
+     */
+    public Status getStatus(int index) {
+        return statuses[index];
+    }
+
+    /**
+     * @return Возвращает битовую маску типов магических статусов, влияющих на живого юнита: бит с номером
+     * {@code statusType.ordinal()} установлен, если среди статусов есть статус типа {@code statusType}.
+     */
+    public int getStatusMask() {
+        return statusMask;
+    }
+
+    /**
+     * @return Возвращает {@code true}, если на живого юнита влияет хотя бы один статус типа {@code statusType}.
+     */
+    public boolean hasStatus(StatusType statusType) {
+        return (statusMask & 1 << statusType.ordinal()) != 0;
+    }
 }
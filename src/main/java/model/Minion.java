@@ -17,7 +17,17 @@ public class Minion extends LivingUnit {
             long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
             int life, int maxLife, Status[] statuses, MinionType type, double visionRange, int damage,
             int cooldownTicks, int remainingActionCooldownTicks) {
-        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses);
+        this(
+                id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, type, visionRange, damage,
+                cooldownTicks, remainingActionCooldownTicks, true
+        );
+    }
+
+    public Minion(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
+            int life, int maxLife, Status[] statuses, MinionType type, double visionRange, int damage,
+            int cooldownTicks, int remainingActionCooldownTicks, boolean copyArrays) {
+        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, copyArrays);
 
         this.type = type;
         this.visionRange = visionRange;
@@ -9,4 +9,10 @@ public class Tree extends LivingUnit {
             int life, int maxLife, Status[] statuses) {
         super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses);
     }
+
+    public Tree(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
+            int life, int maxLife, Status[] statuses, boolean copyArrays) {
+        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, copyArrays);
+    }
 }
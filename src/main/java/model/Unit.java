@@ -128,4 +128,44 @@ public abstract class Unit {
     public double getDistanceTo(Unit unit) {
         return getDistanceTo(unit.x, unit.y);
     }
+
+    /**
+     * @param x X-координата точки.
+     * @param y Y-координата точки.
+     * @return Возвращает квадрат расстояния до точки от центра данного объекта. В отличие от
+     * {@link #getDistanceTo(double, double)} не требует извлечения корня.
+     */
+    public double getSquaredDistanceTo(double x, double y) {
+        double dx = x - this.x;
+        double dy = y - this.y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @param unit Объект, до центра которого необходимо определить квадрат расстояния.
+     * @return Возвращает квадрат расстояния от центра данного объекта до центра указанного объекта.
+     */
+    public double getSquaredDistanceTo(Unit unit) {
+        return getSquaredDistanceTo(unit.x, unit.y);
+    }
+
+    /**
+     * @param x     X-координата точки.
+     * @param y     Y-координата точки.
+     * @param range Расстояние.
+     * @return Возвращает {@code true}, если точка находится не дальше {@code range} от центра данного объекта.
+     */
+    public boolean isWithin(double x, double y, double range) {
+        return range >= 0.0D && getSquaredDistanceTo(x, y) <= range * range;
+    }
+
+    /**
+     * @param unit  Объект, расстояние до центра которого необходимо проверить.
+     * @param range Расстояние.
+     * @return Возвращает {@code true}, если центр указанного объекта находится не дальше {@code range} от центра
+     * данного объекта.
+     */
+    public boolean isWithin(Unit unit, double range) {
+        return isWithin(unit.x, unit.y, range);
+    }
 }
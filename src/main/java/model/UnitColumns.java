@@ -0,0 +1,179 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Хранит юнитов одного типа по столбцам: для каждого свойства — отдельный массив примитивов, где {@code i}-й элемент
+ * относится к {@code i}-му юниту. Массивы переиспользуются от тика к тику, поэтому содержимое актуально только до
+ * получения следующего тика.
+ */
+public class UnitColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Faction[] FACTIONS = Faction.values();
+
+    private int count;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] speedX = new double[INITIAL_CAPACITY];
+    private double[] speedY = new double[INITIAL_CAPACITY];
+    private double[] angles = new double[INITIAL_CAPACITY];
+    private double[] radii = new double[INITIAL_CAPACITY];
+    private int[] lives = new int[INITIAL_CAPACITY];
+    private int[] maxLives = new int[INITIAL_CAPACITY];
+    private byte[] factionOrdinals = new byte[INITIAL_CAPACITY];
+    private byte[] typeOrdinals = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Удаляет всех юнитов, сохраняя выделенные массивы.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Добавляет юнита. Жизненная энергия и тип нового юнита равны {@code 0} и {@code -1} соответственно.
+     *
+     * @return Возвращает индекс добавленного юнита.
+     */
+    public int add(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius) {
+        if (count == ids.length) {
+            grow();
+        }
+
+        int index = count++;
+
+        this.ids[index] = id;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.speedX[index] = speedX;
+        this.speedY[index] = speedY;
+        this.angles[index] = angle;
+        this.radii[index] = radius;
+        this.lives[index] = 0;
+        this.maxLives[index] = 0;
+        this.factionOrdinals[index] = (byte) (faction == null ? -1 : faction.ordinal());
+        this.typeOrdinals[index] = -1;
+
+        return index;
+    }
+
+    /**
+     * Устанавливает текущую и максимальную жизненную энергию юнита с индексом {@code index}.
+     */
+    public void setLife(int index, int life, int maxLife) {
+        lives[index] = life;
+        maxLives[index] = maxLife;
+    }
+
+    /**
+     * Устанавливает порядковый номер типа юнита с индексом {@code index}.
+     */
+    public void setTypeOrdinal(int index, int typeOrdinal) {
+        typeOrdinals[index] = (byte) typeOrdinal;
+    }
+
+    /**
+     * @return Возвращает количество юнитов.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Возвращает уникальный идентификатор юнита.
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return Возвращает X-координату центра юнита.
+     */
+    public double getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * @return Возвращает Y-координату центра юнита.
+     */
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * @return Возвращает X-составляющую скорости юнита.
+     */
+    public double getSpeedX(int index) {
+        return speedX[index];
+    }
+
+    /**
+     * @return Возвращает Y-составляющую скорости юнита.
+     */
+    public double getSpeedY(int index) {
+        return speedY[index];
+    }
+
+    /**
+     * @return Возвращает угол поворота юнита в радианах.
+     */
+    public double getAngle(int index) {
+        return angles[index];
+    }
+
+    /**
+     * @return Возвращает радиус юнита.
+     */
+    public double getRadius(int index) {
+        return radii[index];
+    }
+
+    /**
+     * @return Возвращает текущую жизненную энергию юнита или {@code 0}, если у юнитов этого типа её нет.
+     */
+    public int getLife(int index) {
+        return lives[index];
+    }
+
+    /**
+     * @return Возвращает максимальную жизненную энергию юнита или {@code 0}, если у юнитов этого типа её нет.
+     */
+    public int getMaxLife(int index) {
+        return maxLives[index];
+    }
+
+    /**
+     * @return Возвращает фракцию, к которой относится юнит.
+     */
+    public Faction getFaction(int index) {
+        int ordinal = factionOrdinals[index];
+        return ordinal >= 0 && ordinal < FACTIONS.length ? FACTIONS[ordinal] : null;
+    }
+
+    /**
+     * @return Возвращает порядковый номер типа юнита ({@link MinionType}, {@link BuildingType},
+     * {@link ProjectileType} или {@link BonusType}) или {@code -1}, если тип неизвестен или не предусмотрен.
+     */
+    public int getTypeOrdinal(int index) {
+        return typeOrdinals[index];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+
+        ids = Arrays.copyOf(ids, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        speedX = Arrays.copyOf(speedX, capacity);
+        speedY = Arrays.copyOf(speedY, capacity);
+        angles = Arrays.copyOf(angles, capacity);
+        radii = Arrays.copyOf(radii, capacity);
+        lives = Arrays.copyOf(lives, capacity);
+        maxLives = Arrays.copyOf(maxLives, capacity);
+        factionOrdinals = Arrays.copyOf(factionOrdinals, capacity);
+        typeOrdinals = Arrays.copyOf(typeOrdinals, capacity);
+    }
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Содержит изменения юнитов одного типа по сравнению с предыдущим тиком.
+ */
+public class UnitDelta {
+    private final long[] addedIds;
+    private final int addedCount;
+    private final long[] removedIds;
+    private final int removedCount;
+    private final long[] changedIds;
+    private final int changedCount;
+    private final long[] unchangedIds;
+    private final int unchangedCount;
+
+    public UnitDelta(long[] addedIds, long[] removedIds, long[] changedIds, long[] unchangedIds) {
+        this(
+                addedIds, addedIds.length, removedIds, removedIds.length, changedIds, changedIds.length,
+                unchangedIds, unchangedIds.length, true
+        );
+    }
+
+    /**
+     * Создаёт дельту из первых {@code addedCount}, {@code removedCount}, {@code changedCount} и
+     * {@code unchangedCount} элементов соответствующих массивов.
+     * <p>
+     * Если {@code copyArrays} равно {@code false}, дельта использует переданные массивы без копирования, и вызывающий
+     * код не должен изменять их, пока дельта используется. Клиент переиспользует массивы дельт при получении
+     * следующего тика, поэтому содержимое полученной от него дельты актуально только до этого момента.
+     */
+    public UnitDelta(
+            long[] addedIds, int addedCount, long[] removedIds, int removedCount, long[] changedIds, int changedCount,
+            long[] unchangedIds, int unchangedCount, boolean copyArrays) {
+        this.addedIds = copyArrays ? Arrays.copyOf(addedIds, addedCount) : addedIds;
+        this.addedCount = addedCount;
+        this.removedIds = copyArrays ? Arrays.copyOf(removedIds, removedCount) : removedIds;
+        this.removedCount = removedCount;
+        this.changedIds = copyArrays ? Arrays.copyOf(changedIds, changedCount) : changedIds;
+        this.changedCount = changedCount;
+        this.unchangedIds = copyArrays ? Arrays.copyOf(unchangedIds, unchangedCount) : unchangedIds;
+        this.unchangedCount = unchangedCount;
+    }
+
+    /**
+     * @return Возвращает идентификаторы юнитов, которых не было в предыдущем тике.
+     */
+    public long[] getAddedIds() {
+        return Arrays.copyOf(addedIds, addedCount);
+    }
+
+    /**
+     * @return Возвращает количество юнитов, которых не было в предыдущем тике.
+     */
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    /**
+     * @return Возвращает идентификатор {@code index}-го юнита, которого не было в предыдущем тике.
+     */
+    public long getAddedId(int index) {
+        return addedIds[index];
+    }
+
+    /**
+     * @return Возвращает идентификаторы юнитов, которые были в предыдущем тике, но пропали в текущем.
+     */
+    public long[] getRemovedIds() {
+        return Arrays.copyOf(removedIds, removedCount);
+    }
+
+    /**
+     * @return Возвращает количество юнитов, которые были в предыдущем тике, но пропали в текущем.
+     */
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * @return Возвращает идентификатор {@code index}-го юнита, который был в предыдущем тике, но пропал в текущем.
+     */
+    public long getRemovedId(int index) {
+        return removedIds[index];
+    }
+
+    /**
+     * @return Возвращает идентификаторы юнитов, которые были в предыдущем тике и для которых сервер передал новое
+     * состояние. Состояние при этом может и не отличаться от предыдущего.
+     */
+    public long[] getChangedIds() {
+        return Arrays.copyOf(changedIds, changedCount);
+    }
+
+    /**
+     * @return Возвращает количество юнитов, для которых сервер передал новое состояние.
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * @return Возвращает идентификатор {@code index}-го юнита, для которого сервер передал новое состояние.
+     */
+    public long getChangedId(int index) {
+        return changedIds[index];
+    }
+
+    /**
+     * @return Возвращает идентификаторы юнитов, которые сервер пометил как не изменившиеся с предыдущего тика.
+     * Объекты таких юнитов остаются теми же, что и в предыдущем тике.
+     */
+    public long[] getUnchangedIds() {
+        return Arrays.copyOf(unchangedIds, unchangedCount);
+    }
+
+    /**
+     * @return Возвращает количество юнитов, которые сервер пометил как не изменившиеся с предыдущего тика.
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * @return Возвращает идентификатор {@code index}-го юнита, который сервер пометил как не изменившийся с
+     * предыдущего тика.
+     */
+    public long getUnchangedId(int index) {
+        return unchangedIds[index];
+    }
+
+    /**
+     * @return Возвращает {@code true}, если с предыдущего тика не появилось, не пропало и не изменилось ни одного
+     * юнита.
+     */
+    public boolean isEmpty() {
+        return addedCount == 0 && removedCount == 0 && changedCount == 0;
+    }
+}
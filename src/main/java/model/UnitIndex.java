@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Неизменяемый индекс юнитов по идентификатору на основе открытой адресации. Строится один раз для мира.
+ */
+final class UnitIndex {
+    private final long[] keys;
+    private final Unit[] units;
+    private final int mask;
+
+    UnitIndex(Unit[]... unitArrays) {
+        int count = 0;
+        for (Unit[] unitArray : unitArrays) {
+            count += unitArray.length;
+        }
+
+        int capacity = Integer.highestOneBit(StrictMath.max(count, 1) * 2 - 1) << 1;
+
+        keys = new long[capacity];
+        units = new Unit[capacity];
+        mask = capacity - 1;
+
+        for (Unit[] unitArray : unitArrays) {
+            for (Unit unit : unitArray) {
+                if (unit != null) {
+                    add(unit);
+                }
+            }
+        }
+    }
+
+    Unit get(long id) {
+        for (int slot = slotOf(id); units[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return units[slot];
+            }
+        }
+
+        return null;
+    }
+
+    private void add(Unit unit) {
+        long id = unit.getId();
+        int slot = slotOf(id);
+
+        for (; units[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return;
+            }
+        }
+
+        keys[slot] = id;
+        units[slot] = unit;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -15,6 +15,7 @@ public class Wizard extends LivingUnit {
     private final int xp;
     private final int level;
     private final SkillType[] skills;
+    private final long skillMask;
     private final int remainingActionCooldownTicks;
     private final int[] remainingCooldownTicksByAction;
     private final boolean master;
@@ -26,7 +27,24 @@ public class Wizard extends LivingUnit {
             double visionRange, double castRange, int xp, int level, SkillType[] skills,
             int remainingActionCooldownTicks, int[] remainingCooldownTicksByAction, boolean master,
             Message[] messages) {
-        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses);
+        this(
+                id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, ownerPlayerId, me, mana,
+                maxMana, visionRange, castRange, xp, level, skills, remainingActionCooldownTicks,
+                remainingCooldownTicksByAction, master, messages, true
+        );
+    }
+
+    /**
+     * Если {@code copyArrays} равно {@code false}, объект забирает переданные массивы себе без копирования,
+     * и вызывающий код не должен больше их изменять.
+     */
+    public Wizard(
+            long id, double x, double y, double speedX, double speedY, double angle, Faction faction, double radius,
+            int life, int maxLife, Status[] statuses, long ownerPlayerId, boolean me, int mana, int maxMana,
+            double visionRange, double castRange, int xp, int level, SkillType[] skills,
+            int remainingActionCooldownTicks, int[] remainingCooldownTicksByAction, boolean master,
+            Message[] messages, boolean copyArrays) {
+        super(id, x, y, speedX, speedY, angle, faction, radius, life, maxLife, statuses, copyArrays);
 
         this.ownerPlayerId = ownerPlayerId;
         this.me = me;
@@ -36,11 +54,28 @@ public class Wizard extends LivingUnit {
         this.castRange = castRange;
         this.xp = xp;
         this.level = level;
-        this.skills = Arrays.copyOf(skills, skills.length);
         this.remainingActionCooldownTicks = remainingActionCooldownTicks;
-        this.remainingCooldownTicksByAction = Arrays.copyOf(remainingCooldownTicksByAction, remainingCooldownTicksByAction.length);
         this.master = master;
-        this.messages = Arrays.copyOf(messages, messages.length);
+
+        if (copyArrays) {
+            this.skills = Arrays.copyOf(skills, skills.length);
+            this.remainingCooldownTicksByAction = Arrays.copyOf(
+                    remainingCooldownTicksByAction, remainingCooldownTicksByAction.length
+            );
+            this.messages = Arrays.copyOf(messages, messages.length);
+        } else {
+            this.skills = skills;
+            this.remainingCooldownTicksByAction = remainingCooldownTicksByAction;
+            this.messages = messages;
+        }
+
+        long skillMask = 0L;
+        for (SkillType skill : skills) {
+            if (skill != null) {
+                skillMask |= 1L << skill.ordinal();
+            }
+        }
+        this.skillMask = skillMask;
     }
 
     /**
@@ -115,6 +150,35 @@ public class Wizard extends LivingUnit {
         return Arrays.copyOf(skills, skills.length);
     }
 
+    /**
+     * @return Возвращает количество умений, изученных волшебником.
+     */
+    public int getSkillCount() {
+        return skills.length;
+    }
+
+    /**
+     * @return Возвращает умение с индексом {@code index} без копирования массива умений.
+     */
+    public SkillType getSkill(int index) {
+        return skills[index];
+    }
+
+    /**
+     * @return Возвращает битовую маску умений, изученных волшебником: бит с номером {@code skillType.ordinal()}
+     * установлен, если умение {@code skillType} изучено.
+     */
+    public long getSkillMask() {
+        return skillMask;
+    }
+
+    /**
+     * @return Возвращает {@code true}, если волшебник изучил умение {@code skillType}.
+     */
+    public boolean hasSkill(SkillType skillType) {
+        return (skillMask & 1L << skillType.ordinal()) != 0L;
+    }
+
     /**
      * @return Возвращает количество тиков, оставшееся до любого следующего действия.
      * <p>
@@ -143,6 +207,14 @@ public class Wizard extends LivingUnit {
         return Arrays.copyOf(remainingCooldownTicksByAction, remainingCooldownTicksByAction.length);
     }
 
+    /**
+     * @return Возвращает количество тиков, оставшееся до совершения следующего действия {@code actionType}.
+     * Эквивалентно {@code remainingCooldownTicksByAction[actionType.ordinal()]}, но не копирует массив.
+     */
+    public int getRemainingCooldownTicks(ActionType actionType) {
+        return remainingCooldownTicksByAction[actionType.ordinal()];
+    }
+
     /**
      * @return Возвращает {@code true} в том и только том случае, если этот волшебник является верховным.
      * <p>
@@ -160,4 +232,18 @@ public class Wizard extends LivingUnit {
     public Message[] getMessages() {
         return Arrays.copyOf(messages, messages.length);
     }
+
+    /**
+     * @return Возвращает количество сообщений, предназначенных данному волшебнику.
+     */
+    public int getMessageCount() {
+        return messages.length;
+    }
+
+    /**
+     * @return Возвращает сообщение с индексом {@code index} без копирования массива сообщений.
+     */
+    public Message getMessage(int index) {
+        return messages[index];
+    }
 }
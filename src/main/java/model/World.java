@@ -1,6 +1,7 @@
 package model;
 
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * Этот класс описывает игровой мир. Содержит также описания всех игроков и игровых объектов (<<юнитов>>).
@@ -11,27 +12,76 @@ public class World {
     private final double width;
     private final double height;
     private final Player[] players;
-    private final Wizard[] wizards;
+    private Wizard[] wizards;
     private final Minion[] minions;
-    private final Projectile[] projectiles;
-    private final Bonus[] bonuses;
+    private Projectile[] projectiles;
+    private Bonus[] bonuses;
     private final Building[] buildings;
     private final Tree[] trees;
+    private final WorldDelta delta;
+    private final WorldColumns columns;
+    private final WorldSectionLoader sectionLoader;
+
+    private UnitIndex unitIndex;
+    private FactionPartition<Wizard> wizardsByFaction;
+    private FactionPartition<Minion> minionsByFaction;
+    private FactionPartition<Building> buildingsByFaction;
 
     public World(
             int tickIndex, int tickCount, double width, double height, Player[] players, Wizard[] wizards,
             Minion[] minions, Projectile[] projectiles, Bonus[] bonuses, Building[] buildings, Tree[] trees) {
+        this(
+                tickIndex, tickCount, width, height, players, wizards, minions, projectiles, bonuses, buildings, trees,
+                null, null, true
+        );
+    }
+
+    /**
+     * Если {@code copyArrays} равно {@code false}, мир использует переданные массивы без копирования, и вызывающий
+     * код не должен больше их изменять.
+     */
+    public World(
+            int tickIndex, int tickCount, double width, double height, Player[] players, Wizard[] wizards,
+            Minion[] minions, Projectile[] projectiles, Bonus[] bonuses, Building[] buildings, Tree[] trees,
+            WorldDelta delta, WorldColumns columns, boolean copyArrays) {
+        this.tickIndex = tickIndex;
+        this.tickCount = tickCount;
+        this.width = width;
+        this.height = height;
+        this.players = copyArrays ? Arrays.copyOf(players, players.length) : players;
+        this.wizards = copyArrays ? Arrays.copyOf(wizards, wizards.length) : wizards;
+        this.minions = copyArrays ? Arrays.copyOf(minions, minions.length) : minions;
+        this.projectiles = copyArrays ? Arrays.copyOf(projectiles, projectiles.length) : projectiles;
+        this.bonuses = copyArrays ? Arrays.copyOf(bonuses, bonuses.length) : bonuses;
+        this.buildings = copyArrays ? Arrays.copyOf(buildings, buildings.length) : buildings;
+        this.trees = copyArrays ? Arrays.copyOf(trees, trees.length) : trees;
+        this.delta = delta;
+        this.columns = columns;
+        this.sectionLoader = null;
+    }
+
+    /**
+     * Создаёт мир, в котором волшебники, снаряды и бонусы декодируются загрузчиком {@code sectionLoader} при первом
+     * обращении к соответствующему списку.
+     * <p>
+     * Если {@code copyArrays} равно {@code false}, мир использует переданные массивы без копирования, и вызывающий
+     * код не должен больше их изменять.
+     */
+    public World(
+            int tickIndex, int tickCount, double width, double height, Player[] players, Minion[] minions,
+            Building[] buildings, Tree[] trees, WorldDelta delta, WorldColumns columns,
+            WorldSectionLoader sectionLoader, boolean copyArrays) {
         this.tickIndex = tickIndex;
         this.tickCount = tickCount;
         this.width = width;
         this.height = height;
-        this.players = Arrays.copyOf(players, players.length);
-        this.wizards = Arrays.copyOf(wizards, wizards.length);
-        this.minions = Arrays.copyOf(minions, minions.length);
-        this.projectiles = Arrays.copyOf(projectiles, projectiles.length);
-        this.bonuses = Arrays.copyOf(bonuses, bonuses.length);
-        this.buildings = Arrays.copyOf(buildings, buildings.length);
-        this.trees = Arrays.copyOf(trees, trees.length);
+        this.players = copyArrays ? Arrays.copyOf(players, players.length) : players;
+        this.minions = copyArrays ? Arrays.copyOf(minions, minions.length) : minions;
+        this.buildings = copyArrays ? Arrays.copyOf(buildings, buildings.length) : buildings;
+        this.trees = copyArrays ? Arrays.copyOf(trees, trees.length) : trees;
+        this.delta = delta;
+        this.columns = columns;
+        this.sectionLoader = sectionLoader;
     }
 
     /**
@@ -71,14 +121,61 @@ public class World {
         return Arrays.copyOf(players, players.length);
     }
 
+    /**
+     * @return Возвращает количество игроков.
+     */
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    /**
+     * @return Возвращает игрока с индексом {@code index} без копирования списка.
+     */
+    public Player getPlayer(int index) {
+        return players[index];
+    }
+
+    /**
+     * Передаёт каждого из игроков в {@code action} без копирования списка.
+     */
+    public void forEachPlayer(Consumer<? super Player> action) {
+        for (Player player : players) {
+            action.accept(player);
+        }
+    }
+
     /**
      * @return Возвращает список видимых волшебников (в случайном порядке).
      * После каждого тика объекты, задающие волшебников, пересоздаются.
      */
     public Wizard[] getWizards() {
+        Wizard[] wizards = loadWizards();
         return Arrays.copyOf(wizards, wizards.length);
     }
 
+    /**
+     * @return Возвращает количество видимых волшебников.
+     */
+    public int getWizardCount() {
+        return loadWizards().length;
+    }
+
+    /**
+     * @return Возвращает волшебника с индексом {@code index} без копирования списка.
+     */
+    public Wizard getWizard(int index) {
+        return loadWizards()[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых волшебников в {@code action} без копирования списка.
+     */
+    public void forEachWizard(Consumer<? super Wizard> action) {
+        for (Wizard wizard : loadWizards()) {
+            action.accept(wizard);
+        }
+    }
+
     /**
      * @return Возвращает список видимых последователей (в случайном порядке).
      * После каждого тика объекты, задающие последователей, пересоздаются.
@@ -87,22 +184,93 @@ public class World {
         return Arrays.copyOf(minions, minions.length);
     }
 
+    /**
+     * @return Возвращает количество видимых последователей.
+     */
+    public int getMinionCount() {
+        return minions.length;
+    }
+
+    /**
+     * @return Возвращает последователя с индексом {@code index} без копирования списка.
+     */
+    public Minion getMinion(int index) {
+        return minions[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых последователей в {@code action} без копирования списка.
+     */
+    public void forEachMinion(Consumer<? super Minion> action) {
+        for (Minion minion : minions) {
+            action.accept(minion);
+        }
+    }
+
     /**
      * @return Возвращает список видимых магических снарядов (в случайном порядке).
      * После каждого тика объекты, задающие снаряды, пересоздаются.
      */
     public Projectile[] getProjectiles() {
+        Projectile[] projectiles = loadProjectiles();
         return Arrays.copyOf(projectiles, projectiles.length);
     }
 
+    /**
+     * @return Возвращает количество видимых магических снарядов.
+     */
+    public int getProjectileCount() {
+        return loadProjectiles().length;
+    }
+
+    /**
+     * @return Возвращает снаряд с индексом {@code index} без копирования списка.
+     */
+    public Projectile getProjectile(int index) {
+        return loadProjectiles()[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых магических снарядов в {@code action} без копирования списка.
+     */
+    public void forEachProjectile(Consumer<? super Projectile> action) {
+        for (Projectile projectile : loadProjectiles()) {
+            action.accept(projectile);
+        }
+    }
+
     /**
      * @return Возвращает список видимых бонусов (в случайном порядке).
      * После каждого тика объекты, задающие бонусы, пересоздаются.
      */
     public Bonus[] getBonuses() {
+        Bonus[] bonuses = loadBonuses();
         return Arrays.copyOf(bonuses, bonuses.length);
     }
 
+    /**
+     * @return Возвращает количество видимых бонусов.
+     */
+    public int getBonusCount() {
+        return loadBonuses().length;
+    }
+
+    /**
+     * @return Возвращает бонус с индексом {@code index} без копирования списка.
+     */
+    public Bonus getBonus(int index) {
+        return loadBonuses()[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых бонусов в {@code action} без копирования списка.
+     */
+    public void forEachBonus(Consumer<? super Bonus> action) {
+        for (Bonus bonus : loadBonuses()) {
+            action.accept(bonus);
+        }
+    }
+
     /**
      * @return Возвращает список видимых строений (в случайном порядке).
      * После каждого тика объекты, задающие строения, пересоздаются.
@@ -111,6 +279,29 @@ public class World {
         return Arrays.copyOf(buildings, buildings.length);
     }
 
+    /**
+     * @return Возвращает количество видимых строений.
+     */
+    public int getBuildingCount() {
+        return buildings.length;
+    }
+
+    /**
+     * @return Возвращает строение с индексом {@code index} без копирования списка.
+     */
+    public Building getBuilding(int index) {
+        return buildings[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых строений в {@code action} без копирования списка.
+     */
+    public void forEachBuilding(Consumer<? super Building> action) {
+        for (Building building : buildings) {
+            action.accept(building);
+        }
+    }
+
     /**
      * @return Возвращает список видимых деревьев (в случайном порядке).
      * После каждого тика объекты, задающие деревья, пересоздаются.
@@ -119,6 +310,100 @@ public class World {
         return Arrays.copyOf(trees, trees.length);
     }
 
+    /**
+     * @return Возвращает количество видимых деревьев.
+     */
+    public int getTreeCount() {
+        return trees.length;
+    }
+
+    /**
+     * @return Возвращает дерево с индексом {@code index} без копирования списка.
+     */
+    public Tree getTree(int index) {
+        return trees[index];
+    }
+
+    /**
+     * Передаёт каждого из видимых деревьев в {@code action} без копирования списка.
+     */
+    public void forEachTree(Consumer<? super Tree> action) {
+        for (Tree tree : trees) {
+            action.accept(tree);
+        }
+    }
+
+    /**
+     * @return Возвращает изменения мира по сравнению с предыдущим тиком или {@code null}, если они неизвестны.
+     * Содержимое дельты, построенной клиентом, актуально только до получения следующего тика.
+     */
+    public WorldDelta getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return Возвращает столбцовое представление юнитов мира или {@code null}, если клиент его не строит.
+     * Содержимое актуально только до получения следующего тика.
+     */
+    public WorldColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Возвращает юнита (волшебника, последователя, снаряд, бонус, строение или дерево) с идентификатором
+     * {@code id} или {@code null}, если такого юнита в мире нет. Индекс строится при первом вызове.
+     */
+    public Unit getUnitById(long id) {
+        if (unitIndex == null) {
+            unitIndex = new UnitIndex(loadWizards(), minions, loadProjectiles(), loadBonuses(), buildings, trees);
+        }
+
+        return unitIndex.get(id);
+    }
+
+    /**
+     * @return Возвращает количество видимых волшебников фракции {@code faction}.
+     */
+    public int getWizardCount(Faction faction) {
+        return getWizardsByFaction().getCount(faction);
+    }
+
+    /**
+     * @return Возвращает волшебника фракции {@code faction} с индексом {@code index} среди волшебников этой фракции.
+     */
+    public Wizard getWizard(Faction faction, int index) {
+        return getWizardsByFaction().get(faction, index);
+    }
+
+    /**
+     * @return Возвращает количество видимых последователей фракции {@code faction}.
+     */
+    public int getMinionCount(Faction faction) {
+        return getMinionsByFaction().getCount(faction);
+    }
+
+    /**
+     * @return Возвращает последователя фракции {@code faction} с индексом {@code index} среди последователей этой
+     * фракции.
+     */
+    public Minion getMinion(Faction faction, int index) {
+        return getMinionsByFaction().get(faction, index);
+    }
+
+    /**
+     * @return Возвращает количество видимых строений фракции {@code faction}.
+     */
+    public int getBuildingCount(Faction faction) {
+        return getBuildingsByFaction().getCount(faction);
+    }
+
+    /**
+     * @return Возвращает строение фракции {@code faction} с индексом {@code index} среди строений этой фракции.
+     */
+    public Building getBuilding(Faction faction, int index) {
+        return getBuildingsByFaction().get(faction, index);
+    }
+
     /**
      * @return Возвращает вашего игрока.
      */
@@ -132,4 +417,52 @@ public class World {
 
         return null;
     }
+
+    private Wizard[] loadWizards() {
+        if (wizards == null) {
+            wizards = sectionLoader.loadWizards();
+        }
+
+        return wizards;
+    }
+
+    private Projectile[] loadProjectiles() {
+        if (projectiles == null) {
+            projectiles = sectionLoader.loadProjectiles();
+        }
+
+        return projectiles;
+    }
+
+    private Bonus[] loadBonuses() {
+        if (bonuses == null) {
+            bonuses = sectionLoader.loadBonuses();
+        }
+
+        return bonuses;
+    }
+
+    private FactionPartition<Wizard> getWizardsByFaction() {
+        if (wizardsByFaction == null) {
+            wizardsByFaction = new FactionPartition<>(loadWizards());
+        }
+
+        return wizardsByFaction;
+    }
+
+    private FactionPartition<Minion> getMinionsByFaction() {
+        if (minionsByFaction == null) {
+            minionsByFaction = new FactionPartition<>(minions);
+        }
+
+        return minionsByFaction;
+    }
+
+    private FactionPartition<Building> getBuildingsByFaction() {
+        if (buildingsByFaction == null) {
+            buildingsByFaction = new FactionPartition<>(buildings);
+        }
+
+        return buildingsByFaction;
+    }
 }
@@ -0,0 +1,56 @@
+package model;
+
+/**
+ * Содержит столбцовое представление юнитов мира (см. {@link UnitColumns}). Клиент заполняет один и тот же объект
+ * при получении каждого тика, поэтому содержимое актуально только до получения следующего тика.
+ */
+public class WorldColumns {
+    private final UnitColumns wizards = new UnitColumns();
+    private final UnitColumns minions = new UnitColumns();
+    private final UnitColumns projectiles = new UnitColumns();
+    private final UnitColumns bonuses = new UnitColumns();
+    private final UnitColumns buildings = new UnitColumns();
+    private final UnitColumns trees = new UnitColumns();
+
+    /**
+     * @return Возвращает видимых волшебников.
+     */
+    public UnitColumns getWizards() {
+        return wizards;
+    }
+
+    /**
+     * @return Возвращает видимых последователей.
+     */
+    public UnitColumns getMinions() {
+        return minions;
+    }
+
+    /**
+     * @return Возвращает видимые магические снаряды.
+     */
+    public UnitColumns getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * @return Возвращает видимые бонусы.
+     */
+    public UnitColumns getBonuses() {
+        return bonuses;
+    }
+
+    /**
+     * @return Возвращает видимые строения.
+     */
+    public UnitColumns getBuildings() {
+        return buildings;
+    }
+
+    /**
+     * @return Возвращает видимые деревья.
+     */
+    public UnitColumns getTrees() {
+        return trees;
+    }
+}
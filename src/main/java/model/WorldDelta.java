@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Содержит изменения мира по сравнению с предыдущим тиком, известные из протокола: для последователей, строений и
+ * деревьев сервер сообщает, какие из них не изменились, а массивы строений и деревьев может вовсе не передавать.
+ */
+public class WorldDelta {
+    private final UnitDelta minionDelta;
+    private final UnitDelta buildingDelta;
+    private final UnitDelta treeDelta;
+    private final boolean buildingArrayReused;
+    private final boolean treeArrayReused;
+
+    public WorldDelta(
+            UnitDelta minionDelta, UnitDelta buildingDelta, UnitDelta treeDelta, boolean buildingArrayReused,
+            boolean treeArrayReused) {
+        this.minionDelta = minionDelta;
+        this.buildingDelta = buildingDelta;
+        this.treeDelta = treeDelta;
+        this.buildingArrayReused = buildingArrayReused;
+        this.treeArrayReused = treeArrayReused;
+    }
+
+    /**
+     * @return Возвращает изменения последователей.
+     */
+    public UnitDelta getMinionDelta() {
+        return minionDelta;
+    }
+
+    /**
+     * @return Возвращает изменения строений.
+     */
+    public UnitDelta getBuildingDelta() {
+        return buildingDelta;
+    }
+
+    /**
+     * @return Возвращает изменения деревьев.
+     */
+    public UnitDelta getTreeDelta() {
+        return treeDelta;
+    }
+
+    /**
+     * @return Возвращает {@code true}, если сервер не передавал строения в этом тике и массив строений остался тем же,
+     * что и в предыдущем тике.
+     */
+    public boolean isBuildingArrayReused() {
+        return buildingArrayReused;
+    }
+
+    /**
+     * @return Возвращает {@code true}, если сервер не передавал деревья в этом тике и массив деревьев остался тем же,
+     * что и в предыдущем тике.
+     */
+    public boolean isTreeArrayReused() {
+        return treeArrayReused;
+    }
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Декодирует секции мира, которые клиент не разбирает сразу при получении тика, а сохраняет в виде байтов протокола.
+ * Каждый метод вызывается не более одного раза для каждого мира.
+ */
+public interface WorldSectionLoader {
+    /**
+     * @return Возвращает список видимых волшебников.
+     */
+    Wizard[] loadWizards();
+
+    /**
+     * @return Возвращает список видимых магических снарядов.
+     */
+    Projectile[] loadProjectiles();
+
+    /**
+     * @return Возвращает список видимых бонусов.
+     */
+    Bonus[] loadBonuses();
+}
@@ -0,0 +1,84 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FacingConeTest {
+    private static final int DIRECTION_COUNT = 100000;
+    private static final double BOUNDARY_MARGIN = 1.0E-9D;
+
+    @Test
+    public void zeroHalfAngleContainsOnlyTheApex() {
+        FacingCone cone = new FacingCone(0.0D);
+
+        assertFalse(cone.isFullCircle());
+        assertTrue(cone.contains(0.0D, 0.0D, 1.0D, 0.0D));
+        assertFalse(cone.contains(5.0D, 0.0D, 1.0D, 0.0D));
+        assertFalse(cone.contains(5.0D, 1.0E-6D, 1.0D, 0.0D));
+        assertFalse(cone.contains(-5.0D, 0.0D, 1.0D, 0.0D));
+    }
+
+    @Test
+    public void halfAngleOfPiOrMoreIsTheFullCircle() {
+        for (double halfAngle : new double[]{StrictMath.PI, 4.0D, 100.0D}) {
+            FacingCone cone = new FacingCone(halfAngle);
+
+            assertTrue(cone.isFullCircle());
+            assertTrue(cone.contains(0.0D, 0.0D, 1.0D, 0.0D));
+            assertTrue(cone.contains(5.0D, 0.0D, 1.0D, 0.0D));
+            assertTrue(cone.contains(0.0D, -5.0D, 1.0D, 0.0D));
+            assertTrue(cone.contains(-5.0D, 0.0D, 1.0D, 0.0D));
+        }
+    }
+
+    @Test
+    public void halfAngleJustBelowPiExcludesTheBack() {
+        FacingCone cone = new FacingCone(StrictMath.PI - 0.01D);
+
+        assertFalse(cone.isFullCircle());
+        assertTrue(cone.contains(0.0D, -5.0D, 1.0D, 0.0D));
+        assertTrue(cone.contains(-5.0D, 0.1D, 1.0D, 0.0D));
+        assertFalse(cone.contains(-5.0D, 0.0D, 1.0D, 0.0D));
+    }
+
+    /**
+     * Away from the boundary, a direction is inside exactly if the {@code atan2} angle between it and the facing is
+     * below the half-angle, for narrow cones, cones wider than a half-plane and both overloads.
+     */
+    @Test
+    public void containsMatchesAngleTest() {
+        Random random = new Random(7L);
+
+        for (int directionIndex = 0; directionIndex < DIRECTION_COUNT; ++directionIndex) {
+            double halfAngle = random.nextDouble() * 1.1D * StrictMath.PI;
+            double facingAngle = (random.nextDouble() * 2.0D - 1.0D) * StrictMath.PI;
+            double facingX = StrictMath.cos(facingAngle);
+            double facingY = StrictMath.sin(facingAngle);
+            double dx = random.nextDouble() * 200.0D - 100.0D;
+            double dy = random.nextDouble() * 200.0D - 100.0D;
+
+            double angle = StrictMath.abs(normalize(StrictMath.atan2(dy, dx) - facingAngle));
+            if (StrictMath.abs(angle - halfAngle) < BOUNDARY_MARGIN) {
+                continue;
+            }
+
+            FacingCone cone = new FacingCone(halfAngle);
+            boolean expected = angle < halfAngle;
+            assertEquals(expected, cone.contains(dx, dy, facingX, facingY));
+            assertEquals(expected, cone.contains(dx, dy, dx * dx + dy * dy, facingX, facingY));
+        }
+    }
+
+    private static double normalize(double angle) {
+        while (angle > StrictMath.PI) {
+            angle -= 2.0D * StrictMath.PI;
+        }
+        while (angle < -StrictMath.PI) {
+            angle += 2.0D * StrictMath.PI;
+        }
+        return angle;
+    }
+}
@@ -0,0 +1,43 @@
+import model.Game;
+
+/**
+ * Game settings for tests, with the values of a regular game.
+ */
+final class Games {
+    static Game createDefault() {
+        return new Game(
+                0L, 20000, 4000.0D, true, true, 0.0D, 0.25D,
+                0.75D, 0.25D, 0.75D, 0.25D, 0.75D, 0.5D, 1000,
+                600.0D, 1024, 1.0D, 35.0D, 500.0D,
+                600.0D, 4.0D, 3.0D, 3.0D,
+                100, 10, 100, 10,
+                0.05D, 0.005D,
+                0.2D, 0.02D, StrictMath.PI / 30.0D,
+                2400, 1200, 30,
+                60, 60, 90,
+                120, 120, 120, 12,
+                36, 48, 48, 48, 12,
+                StrictMath.PI / 6.0D, 70.0D, new int[]{50, 100, 150, 200, 250, 300, 350, 400, 450, 500, 550, 600},
+                25.0D, 400.0D,
+                3.0D, StrictMath.PI / 30.0D, 100, 750,
+                60, 12, StrictMath.PI / 6.0D,
+                50.0D, 30, 300.0D,
+                StrictMath.PI / 6.0D, 20.0D, 2500,
+                200, 5.0D, 50.0D, 6, 10.0D,
+                40.0D, 12, 15.0D, 35.0D,
+                24, 20.0D, 30.0D,
+                50.0D, 100.0D,
+                24, 12, 50.0D,
+                600.0D, 1000.0D, 600.0D,
+                36, 240, 100.0D,
+                800.0D, 2000.0D, 800.0D, 48,
+                240, 240, 24,
+                2400, 1.5D, 60,
+                600, 0.5D, 0.3D,
+                1.0D, 600, 0.5D,
+                0.25D, 500.0D, 25.0D,
+                1, 3,
+                0.05D, 1
+        );
+    }
+}
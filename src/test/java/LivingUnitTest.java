@@ -0,0 +1,97 @@
+import model.Faction;
+import model.LivingUnit;
+import model.Message;
+import model.SkillType;
+import model.Status;
+import model.StatusType;
+import model.Tree;
+import model.Wizard;
+import model.World;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LivingUnitTest {
+    @Test
+    public void masksMatchScanOfDecodedUnits() throws IOException {
+        LoopbackTransport transport = new LoopbackTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+        WorldFrames frames = new WorldFrames(14L);
+
+        for (int tickIndex = 0; tickIndex < 50; ++tickIndex) {
+            transport.getPeer().write(frames.next(0));
+            World world = client.readPlayerContext().getWorld();
+
+            for (LivingUnit[] units : new LivingUnit[][]{
+                    world.getWizards(), world.getMinions(), world.getBuildings(), world.getTrees()}) {
+                for (LivingUnit unit : units) {
+                    if (unit != null) {
+                        assertStatusesAsScan(unit);
+                    }
+                }
+            }
+
+            for (Wizard wizard : world.getWizards()) {
+                if (wizard != null) {
+                    assertSkillsAsScan(wizard);
+                }
+            }
+        }
+    }
+
+    /**
+     * Covers every status and skill type, including the last skill, whose bit is the highest of the mask, and
+     * absent entries.
+     */
+    @Test
+    public void masksMatchScanOfEveryType() {
+        for (StatusType statusType : StatusType.values()) {
+            Status[] statuses = {null, new Status(1L, statusType, 2L, 3L, 10), new Status(4L, null, 2L, 3L, 10)};
+            LivingUnit unit = new Tree(1L, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, Faction.OTHER, 30.0D, 1, 1, statuses);
+            assertStatusesAsScan(unit);
+            assertTrue(unit.hasStatus(statusType));
+        }
+
+        for (SkillType skillType : SkillType.values()) {
+            Wizard wizard = createWizard(new SkillType[]{null, skillType});
+            assertSkillsAsScan(wizard);
+            assertTrue(wizard.hasSkill(skillType));
+        }
+
+        Wizard wizard = createWizard(SkillType.values());
+        assertSkillsAsScan(wizard);
+        assertStatusesAsScan(wizard);
+        assertFalse(wizard.hasStatus(StatusType.FROZEN));
+    }
+
+    private static void assertStatusesAsScan(LivingUnit unit) {
+        for (StatusType statusType : StatusType.values()) {
+            boolean found = false;
+            for (Status status : unit.getStatuses()) {
+                found |= status != null && status.getType() == statusType;
+            }
+            assertEquals(found, unit.hasStatus(statusType));
+        }
+    }
+
+    private static void assertSkillsAsScan(Wizard wizard) {
+        for (SkillType skillType : SkillType.values()) {
+            boolean found = false;
+            for (SkillType skill : wizard.getSkills()) {
+                found |= skill == skillType;
+            }
+            assertEquals(found, wizard.hasSkill(skillType));
+        }
+    }
+
+    private static Wizard createWizard(SkillType[] skills) {
+        return new Wizard(
+                1L, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, Faction.ACADEMY, 35.0D, 100, 100, new Status[0], 1L, true, 100, 100,
+                600.0D, 500.0D, 0, 0, skills, 0, new int[7], false, new Message[0]
+        );
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LoopbackTransportTest {
+    @Test
+    public void bytesArriveInOrderAcrossFramesAndPartialReads() throws IOException {
+        LoopbackTransport client = new LoopbackTransport();
+        LoopbackTransport server = client.getPeer();
+
+        byte[] first = {1, 2, 3, 4, 5};
+        byte[] second = new byte[100000];
+        for (int i = 0; i < second.length; ++i) {
+            second[i] = (byte) i;
+        }
+
+        client.write(ByteBuffer.wrap(first));
+        client.write(ByteBuffer.wrap(second));
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+
+        ByteBuffer received = ByteBuffer.allocate(expected.length);
+        ByteBuffer chunk = ByteBuffer.allocate(777);
+        while (received.hasRemaining()) {
+            chunk.clear();
+            chunk.limit(StrictMath.min(chunk.capacity(), received.remaining()));
+            server.read(chunk);
+            chunk.flip();
+            received.put(chunk);
+        }
+
+        assertArrayEquals(expected, received.array());
+    }
+
+    @Test
+    public void closingSignalsEndOfStreamToPeer() throws IOException {
+        LoopbackTransport client = new LoopbackTransport();
+        LoopbackTransport server = client.getPeer();
+
+        server.write(ByteBuffer.wrap(new byte[]{42}));
+        server.close();
+
+        ByteBuffer target = ByteBuffer.allocate(8);
+        assertEquals(1, client.read(target));
+        assertEquals(42, target.get(0));
+        assertEquals(-1, client.read(target));
+        assertEquals(-1, client.read(target));
+    }
+
+    @Test(expected = IOException.class)
+    public void writingAfterCloseFails() throws IOException {
+        LoopbackTransport client = new LoopbackTransport();
+        client.close();
+        client.write(ByteBuffer.wrap(new byte[]{1}));
+    }
+}
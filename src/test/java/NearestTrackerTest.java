@@ -0,0 +1,104 @@
+import model.Faction;
+import model.Status;
+import model.Tree;
+import model.Unit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NearestTrackerTest {
+    private static final int TICK_COUNT = 300;
+    private static final int MAX_UNIT_ID = 200;
+
+    /**
+     * Units come and go, move a few points or jump across the map, and often sit at equal distances; every tick the
+     * repaired order must be that of a stable sort of the input list by distance.
+     */
+    @Test
+    public void repairedOrderMatchesStableSort() {
+        for (UnitMath math : new UnitMath[]{UnitMath.STRICT, UnitMath.FAST}) {
+            Random random = new Random(3L);
+            NearestTracker<Tree> tracker = new NearestTracker<>(math);
+            double[] x = new double[MAX_UNIT_ID];
+            double[] y = new double[MAX_UNIT_ID];
+            boolean[] present = new boolean[MAX_UNIT_ID];
+
+            for (int tickIndex = 0; tickIndex < TICK_COUNT; ++tickIndex) {
+                boolean respawn = tickIndex % 50 == 0;
+                boolean lattice = tickIndex % 7 == 3;
+                List<Tree> units = new ArrayList<>();
+
+                for (int id = 0; id < MAX_UNIT_ID; ++id) {
+                    if (!present[id] || respawn) {
+                        x[id] = random.nextDouble() * 4000.0D;
+                        y[id] = random.nextDouble() * 4000.0D;
+                    } else {
+                        x[id] += random.nextDouble() * 6.0D - 3.0D;
+                        y[id] += random.nextDouble() * 6.0D - 3.0D;
+                    }
+
+                    present[id] = tickIndex % 60 != 59 && random.nextInt(10) > 0;
+                    if (present[id]) {
+                        double unitX = lattice ? 100.0D * (id % 5) : x[id];
+                        double unitY = lattice ? 100.0D * (id % 3) : y[id];
+                        units.add(createUnit(id, unitX, unitY));
+                    }
+                }
+
+                // the input order changes from tick to tick as well
+                if (random.nextBoolean()) {
+                    Collections.shuffle(units, random);
+                }
+
+                Tree origin = createUnit(-1L, lattice ? 0.0D : 2000.0D + tickIndex, 2000.0D);
+                assertSortedAsStableSort(tracker, units, origin, math);
+            }
+        }
+    }
+
+    @Test
+    public void emptyListStaysEmpty() {
+        NearestTracker<Tree> tracker = new NearestTracker<>(UnitMath.STRICT);
+        Tree origin = createUnit(-1L, 0.0D, 0.0D);
+        List<Tree> units = new ArrayList<>();
+
+        tracker.sort(units, origin);
+        assertEquals(0, units.size());
+
+        units.add(createUnit(1L, 10.0D, 0.0D));
+        units.add(createUnit(2L, 5.0D, 0.0D));
+        assertSortedAsStableSort(tracker, units, origin, UnitMath.STRICT);
+
+        units.clear();
+        tracker.sort(units, origin);
+        assertEquals(0, units.size());
+
+        units.add(createUnit(2L, 5.0D, 0.0D));
+        assertSortedAsStableSort(tracker, units, origin, UnitMath.STRICT);
+    }
+
+    private static void assertSortedAsStableSort(
+            NearestTracker<Tree> tracker, List<Tree> units, Unit origin, UnitMath math) {
+        List<Tree> expected = new ArrayList<>(units);
+        expected.sort(Comparator.comparingDouble(unit -> math.getDistanceTo(origin, unit)));
+
+        tracker.sort(units, origin);
+
+        assertEquals(expected.size(), units.size());
+        for (int rank = 0; rank < expected.size(); ++rank) {
+            assertSame(expected.get(rank), units.get(rank));
+            assertEquals(math.getDistanceTo(origin, expected.get(rank)), tracker.getDistance(rank), 0.0D);
+        }
+    }
+
+    private static Tree createUnit(long id, double x, double y) {
+        return new Tree(id, x, y, 0.0D, 0.0D, 0.0D, Faction.OTHER, 30.0D, 100, 100, new Status[0]);
+    }
+}
@@ -0,0 +1,197 @@
+import model.Faction;
+import model.Status;
+import model.Tree;
+import model.UnitColumns;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ObstacleTreeTest {
+    private static final int TREE_COUNT = 300;
+    private static final int QUERY_COUNT = 2000;
+
+    @Test
+    public void columnsAndUnitsBuildTheSameHierarchy() {
+        Random random = new Random(1L);
+        List<Tree> trees = new ArrayList<>();
+        UnitColumns firstColumns = new UnitColumns();
+        UnitColumns secondColumns = new UnitColumns();
+
+        for (int treeIndex = 0; treeIndex < TREE_COUNT; ++treeIndex) {
+            Tree tree = new Tree(
+                    treeIndex, random.nextDouble() * 4000.0D, random.nextDouble() * 4000.0D, 0.0D, 0.0D, 0.0D,
+                    Faction.OTHER, 20.0D + random.nextDouble() * 30.0D, 100, 100, new Status[0]
+            );
+            trees.add(tree);
+            (treeIndex < TREE_COUNT / 2 ? firstColumns : secondColumns).add(
+                    tree.getId(), tree.getX(), tree.getY(), 0.0D, 0.0D, 0.0D, Faction.OTHER, tree.getRadius()
+            );
+        }
+
+        ObstacleTree fromUnits = new ObstacleTree(UnitMath.STRICT);
+        ObstacleTree fromColumns = new ObstacleTree(UnitMath.STRICT);
+        assertTrue(fromUnits.update(trees));
+        assertTrue(fromColumns.update(firstColumns, secondColumns));
+
+        for (int queryIndex = 0; queryIndex < QUERY_COUNT; ++queryIndex) {
+            double x = random.nextDouble() * 4000.0D;
+            double y = random.nextDouble() * 4000.0D;
+            double radius = 35.0D + random.nextDouble() * 100.0D;
+
+            assertEquals(fromUnits.overlaps(x, y, radius), fromColumns.overlaps(x, y, radius));
+
+            int count = fromUnits.findOverlapping(x, y, radius);
+            assertEquals(count, fromColumns.findOverlapping(x, y, radius));
+            for (int resultIndex = 0; resultIndex < count; ++resultIndex) {
+                assertEquals(fromUnits.getResult(resultIndex), fromColumns.getResult(resultIndex));
+            }
+        }
+
+        assertFalse(fromColumns.update(trees));
+        assertFalse(fromUnits.update(firstColumns, secondColumns));
+
+        secondColumns.clear();
+        assertTrue(fromColumns.update(firstColumns, secondColumns));
+        assertEquals(TREE_COUNT / 2, fromColumns.getUnitCount());
+    }
+
+    @Test
+    public void queriesMatchScanOfEveryObstacle() {
+        Random random = new Random(2L);
+        List<Tree> trees = new ArrayList<>();
+        for (int treeIndex = 0; treeIndex < TREE_COUNT; ++treeIndex) {
+            trees.add(createTree(
+                    treeIndex, random.nextDouble() * 4000.0D, random.nextDouble() * 4000.0D,
+                    20.0D + random.nextDouble() * 30.0D
+            ));
+        }
+
+        ObstacleTree obstacles = new ObstacleTree(UnitMath.STRICT);
+        obstacles.update(trees);
+
+        for (int queryIndex = 0; queryIndex < QUERY_COUNT; ++queryIndex) {
+            double x = random.nextDouble() * 4000.0D;
+            double y = random.nextDouble() * 4000.0D;
+            double radius = 35.0D + random.nextDouble() * 100.0D;
+
+            assertOverlapsAsScan(obstacles, trees, x, y, radius);
+            assertNearestAsScan(obstacles, trees, x, y, 1 + random.nextInt(20));
+        }
+    }
+
+    /**
+     * Obstacles on a lattice queried at lattice points: many centres are exactly as far as each other, or exactly
+     * touching the query circle.
+     */
+    @Test
+    public void queriesMatchScanOnTies() {
+        List<Tree> trees = new ArrayList<>();
+        for (int row = 0; row < 20; ++row) {
+            for (int column = 0; column < 20; ++column) {
+                trees.add(createTree(trees.size(), 100.0D * column, 100.0D * row, 25.0D));
+            }
+        }
+        Collections.shuffle(trees, new Random(3L));
+
+        ObstacleTree obstacles = new ObstacleTree(UnitMath.STRICT);
+        obstacles.update(trees);
+
+        for (int row = 0; row < 20; row += 3) {
+            for (int column = 0; column < 20; column += 3) {
+                double x = 100.0D * column + 50.0D;
+                double y = 100.0D * row;
+
+                assertOverlapsAsScan(obstacles, trees, x, y, 25.0D);
+                assertOverlapsAsScan(obstacles, trees, x, y, 75.0D);
+                for (int k = 1; k <= 13; k += 4) {
+                    assertNearestAsScan(obstacles, trees, x, y, k);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nearestQueryIsBoundedByObstacleCount() {
+        List<Tree> trees = new ArrayList<>();
+        for (int treeIndex = 0; treeIndex < 5; ++treeIndex) {
+            trees.add(createTree(treeIndex, 100.0D * treeIndex, 0.0D, 10.0D));
+        }
+
+        ObstacleTree obstacles = new ObstacleTree(UnitMath.STRICT);
+        obstacles.update(trees);
+
+        assertEquals(0, obstacles.findNearest(0.0D, 0.0D, 0));
+        assertEquals(0, obstacles.findNearest(0.0D, 0.0D, -1));
+        assertNearestAsScan(obstacles, trees, 150.0D, 0.0D, 5);
+        assertNearestAsScan(obstacles, trees, 150.0D, 0.0D, 100);
+    }
+
+    @Test
+    public void emptyTreeMatchesNothing() {
+        ObstacleTree obstacles = new ObstacleTree(UnitMath.STRICT);
+        assertFalse(obstacles.overlaps(100.0D, 100.0D, 1000.0D));
+        assertEquals(0, obstacles.findOverlapping(100.0D, 100.0D, 1000.0D));
+        assertEquals(0, obstacles.findNearest(100.0D, 100.0D, 3));
+
+        obstacles.update(Collections.<Tree>emptyList());
+        assertEquals(0, obstacles.getUnitCount());
+        assertFalse(obstacles.overlaps(100.0D, 100.0D, 1000.0D));
+        assertEquals(0, obstacles.findOverlapping(100.0D, 100.0D, 1000.0D));
+        assertEquals(0, obstacles.findNearest(100.0D, 100.0D, 3));
+    }
+
+    private static void assertOverlapsAsScan(
+            ObstacleTree obstacles, List<Tree> trees, double x, double y, double radius) {
+        List<Integer> expected = new ArrayList<>();
+        for (int treeIndex = 0; treeIndex < trees.size(); ++treeIndex) {
+            Tree tree = trees.get(treeIndex);
+            if (StrictMath.hypot(x - tree.getX(), y - tree.getY()) <= radius + tree.getRadius()) {
+                expected.add(treeIndex);
+            }
+        }
+
+        assertEquals(!expected.isEmpty(), obstacles.overlaps(x, y, radius));
+        assertEquals(expected, getResults(obstacles, obstacles.findOverlapping(x, y, radius)));
+    }
+
+    private static void assertNearestAsScan(ObstacleTree obstacles, List<Tree> trees, double x, double y, int k) {
+        List<Integer> expected = new ArrayList<>();
+        for (int treeIndex = 0; treeIndex < trees.size(); ++treeIndex) {
+            expected.add(treeIndex);
+        }
+        // a stable sort keeps ascending indices among equal distances
+        expected.sort((first, second) -> Double.compare(
+                getSquaredDistance(trees.get(first), x, y), getSquaredDistance(trees.get(second), x, y)
+        ));
+
+        assertEquals(
+                expected.subList(0, StrictMath.min(k, trees.size())),
+                getResults(obstacles, obstacles.findNearest(x, y, k))
+        );
+    }
+
+    private static List<Integer> getResults(ObstacleTree obstacles, int count) {
+        List<Integer> results = new ArrayList<>(count);
+        for (int resultIndex = 0; resultIndex < count; ++resultIndex) {
+            results.add(obstacles.getResult(resultIndex));
+        }
+        return results;
+    }
+
+    private static double getSquaredDistance(Tree tree, double x, double y) {
+        double dx = x - tree.getX();
+        double dy = y - tree.getY();
+        return dx * dx + dy * dy;
+    }
+
+    private static Tree createTree(long id, double x, double y, double radius) {
+        return new Tree(id, x, y, 0.0D, 0.0D, 0.0D, Faction.OTHER, radius, 100, 100, new Status[0]);
+    }
+}
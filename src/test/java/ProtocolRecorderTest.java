@@ -0,0 +1,70 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ProtocolRecorderTest {
+    private static final int CHUNK_SIZE_BYTES = 1 << 20;
+    private static final int CHUNK_COUNT = 40;
+
+    private Path directory;
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recorder");
+        path = directory.resolve("game").toString();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (String suffix : new String[]{
+                ProtocolRecorder.INBOUND_SUFFIX, ProtocolRecorder.OUTBOUND_SUFFIX, ProtocolRecorder.INDEX_SUFFIX}) {
+            Files.deleteIfExists(Paths.get(path + suffix));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void logsSpanSeveralRegionsAndAreTruncatedOnClose() throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE_BYTES];
+        byte[] expected = new byte[CHUNK_SIZE_BYTES * CHUNK_COUNT];
+
+        try (ProtocolRecorder recorder = new ProtocolRecorder(path)) {
+            for (int chunkIndex = 0; chunkIndex < CHUNK_COUNT; ++chunkIndex) {
+                for (int i = 0; i < CHUNK_SIZE_BYTES; ++i) {
+                    chunk[i] = (byte) (i * 31 + chunkIndex);
+                }
+                System.arraycopy(chunk, 0, expected, chunkIndex * CHUNK_SIZE_BYTES, CHUNK_SIZE_BYTES);
+
+                recorder.markTick(recorder.getInboundLength(), recorder.getOutboundLength());
+                recorder.writeInbound(ByteBuffer.wrap(chunk));
+                recorder.writeOutbound(ByteBuffer.wrap(chunk, 0, chunkIndex + 1));
+                recorder.reserve();
+            }
+        }
+
+        assertArrayEquals(expected, Files.readAllBytes(Paths.get(path + ProtocolRecorder.INBOUND_SUFFIX)));
+        assertEquals(
+                CHUNK_COUNT * (CHUNK_COUNT + 1) / 2,
+                Files.size(Paths.get(path + ProtocolRecorder.OUTBOUND_SUFFIX))
+        );
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path + ProtocolRecorder.INDEX_SUFFIX)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(CHUNK_COUNT * 2 * Long.BYTES, index.remaining());
+        for (int chunkIndex = 0; chunkIndex < CHUNK_COUNT; ++chunkIndex) {
+            assertEquals((long) chunkIndex * CHUNK_SIZE_BYTES, index.getLong());
+            assertEquals((long) chunkIndex * (chunkIndex + 1) / 2, index.getLong());
+        }
+    }
+}
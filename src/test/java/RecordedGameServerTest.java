@@ -0,0 +1,110 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordedGameServerTest {
+    private static final byte GAME_OVER = 1;
+    private static final byte TEAM_SIZE = 3;
+    private static final byte GAME_CONTEXT = 5;
+    private static final byte PLAYER_CONTEXT = 6;
+
+    private static final int TICK_COUNT = 25;
+
+    private Path directory;
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("server");
+        path = directory.resolve("game").toString();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (String suffix : new String[]{
+                ProtocolRecorder.INBOUND_SUFFIX, ProtocolRecorder.OUTBOUND_SUFFIX, ProtocolRecorder.INDEX_SUFFIX}) {
+            Files.deleteIfExists(Paths.get(path + suffix));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * A game with no wizards of our own still goes through the full request/response cycle of every tick: the runner
+     * answers each player context with an empty {@code MOVES} message.
+     */
+    @Test
+    public void runnerPlaysRecordedGameOverLoopback() throws Exception {
+        try (ProtocolRecorder recorder = new ProtocolRecorder(path)) {
+            recorder.writeInbound(message(TEAM_SIZE, 0, 0, 0, 0));
+            recorder.writeInbound(message(GAME_CONTEXT, 0));
+
+            for (int tickIndex = 0; tickIndex < TICK_COUNT; ++tickIndex) {
+                recorder.markTick(recorder.getInboundLength(), 0L);
+                // present, no wizards, no world
+                recorder.writeInbound(message(PLAYER_CONTEXT, 1, 0, 0, 0, 0, 0));
+            }
+
+            recorder.writeInbound(message(GAME_OVER));
+        }
+
+        LoopbackTransport clientTransport = new LoopbackTransport();
+        RecordedGameServer server = new RecordedGameServer(path, clientTransport.getPeer());
+        Thread serverThread = new Thread(server);
+        serverThread.start();
+
+        new Runner(clientTransport, "token").run();
+        serverThread.join();
+
+        assertEquals(TICK_COUNT, server.getMovesCount());
+    }
+
+    /**
+     * The inbound log is sparse, so the test writes nothing close to its length.
+     */
+    @Test
+    public void logTooLongToMapIsRejected() throws IOException {
+        try (RandomAccessFile inbound = new RandomAccessFile(path + ProtocolRecorder.INBOUND_SUFFIX, "rw")) {
+            inbound.setLength(Integer.MAX_VALUE + 1L);
+        }
+        Files.createFile(Paths.get(path + ProtocolRecorder.INDEX_SUFFIX));
+
+        try {
+            new RecordedGameServer(path, new LoopbackTransport());
+            fail("A log longer than Integer.MAX_VALUE bytes was accepted.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(String.valueOf(Integer.MAX_VALUE + 1L)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void tickOffsetPastEndOfLogIsRejected() throws IOException {
+        try (ProtocolRecorder recorder = new ProtocolRecorder(path)) {
+            recorder.writeInbound(message(TEAM_SIZE, 0, 0, 0, 0));
+            recorder.markTick(recorder.getInboundLength() + 1L, 0L);
+        }
+
+        new RecordedGameServer(path, new LoopbackTransport());
+    }
+
+    private static ByteBuffer message(byte type, int... bytes) {
+        ByteBuffer message = ByteBuffer.allocate(1 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        message.put(type);
+        for (int value : bytes) {
+            message.put((byte) value);
+        }
+        message.flip();
+        return message;
+    }
+}
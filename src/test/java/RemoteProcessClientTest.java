@@ -0,0 +1,510 @@
+import model.ActionType;
+import model.Bonus;
+import model.Building;
+import model.CircularUnit;
+import model.LivingUnit;
+import model.Minion;
+import model.Move;
+import model.Projectile;
+import model.SkillType;
+import model.Tree;
+import model.UnitColumns;
+import model.UnitDelta;
+import model.World;
+import model.WorldColumns;
+import model.WorldDelta;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteProcessClientTest {
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    private static final byte PLAYER_CONTEXT = 6;
+    private static final byte FULL_UNIT = 1;
+    private static final byte REUSED_UNIT = 100;
+    private static final int REUSED_ARRAY = -1;
+
+    private static final int MARKED_LIFE = -7;
+
+    @Test
+    public void writeMovesAllocatesNothingInSteadyState() throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        CountingTransport transport = new CountingTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+        Move[] moves = {createMove(1.0D), createMove(-2.0D), null, createMove(3.0D), createMove(4.0D)};
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; ++i) {
+            client.writeMoves(moves);
+        }
+
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; ++i) {
+            client.writeMoves(moves);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore - overhead;
+
+        assertTrue(transport.byteCount > 0L);
+        assertEquals("Bytes allocated while encoding moves.", 0L, allocated);
+    }
+
+    /**
+     * Trees are static: one out of vision for longer than minions are cached must still be reusable by id.
+     */
+    @Test
+    public void treeIsReusedAfterLongAbsence() throws IOException {
+        LoopbackTransport transport = new LoopbackTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+
+        transport.getPeer().write(worldWithTree(0, FULL_UNIT, 7L));
+        Tree tree = client.readPlayerContext().getWorld().getTree(0);
+
+        for (int tickIndex = 1; tickIndex <= 250; ++tickIndex) {
+            transport.getPeer().write(worldWithoutTrees(tickIndex));
+            assertEquals(0, client.readPlayerContext().getWorld().getTreeCount());
+        }
+
+        transport.getPeer().write(worldWithTree(251, REUSED_UNIT, 7L));
+        World world = client.readPlayerContext().getWorld();
+        assertNotNull(world.getTree(0));
+        assertSame(tree, world.getTree(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void reusingUnknownUnitFails() throws IOException {
+        LoopbackTransport transport = new LoopbackTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+
+        transport.getPeer().write(worldWithTree(0, REUSED_UNIT, 7L));
+        client.readPlayerContext();
+    }
+
+    @Test
+    public void deltaTracksUnitsAcrossTicks() throws IOException {
+        LoopbackTransport transport = new LoopbackTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+
+        ByteBuffer frame = startFrame(0);
+        frame.putInt(3);
+        putMinion(frame, FULL_UNIT, 1L);
+        putMinion(frame, FULL_UNIT, 2L);
+        putMinion(frame, FULL_UNIT, 3L);
+        frame.putInt(0).putInt(0).putInt(0).putInt(2);
+        putTree(frame, FULL_UNIT, 10L);
+        putTree(frame, FULL_UNIT, 11L);
+        transport.getPeer().write((ByteBuffer) frame.flip());
+
+        WorldDelta delta = client.readPlayerContext().getWorld().getDelta();
+        assertDelta(delta.getMinionDelta(), new long[]{1L, 2L, 3L}, new long[0], new long[0], new long[0]);
+        assertDelta(delta.getTreeDelta(), new long[]{10L, 11L}, new long[0], new long[0], new long[0]);
+        assertFalse(delta.isBuildingArrayReused());
+        assertFalse(delta.isTreeArrayReused());
+
+        // minion 3 is gone, 1 is reused, 2 is sent again and 4 is new; buildings and trees aren't sent
+        frame = startFrame(1);
+        frame.putInt(3);
+        putMinion(frame, REUSED_UNIT, 1L);
+        putMinion(frame, FULL_UNIT, 2L);
+        putMinion(frame, FULL_UNIT, 4L);
+        frame.putInt(0).putInt(0).putInt(REUSED_ARRAY).putInt(REUSED_ARRAY);
+        transport.getPeer().write((ByteBuffer) frame.flip());
+
+        delta = client.readPlayerContext().getWorld().getDelta();
+        assertDelta(delta.getMinionDelta(), new long[]{4L}, new long[]{3L}, new long[]{2L}, new long[]{1L});
+        assertDelta(delta.getTreeDelta(), new long[0], new long[0], new long[0], new long[]{10L, 11L});
+        assertTrue(delta.getBuildingDelta().isEmpty());
+        assertTrue(delta.isBuildingArrayReused());
+        assertTrue(delta.isTreeArrayReused());
+        assertFalse(delta.getMinionDelta().isEmpty());
+        assertTrue(delta.getTreeDelta().isEmpty());
+
+        // every minion is gone, tree 11 is reused in a new array without tree 10
+        frame = startFrame(2);
+        frame.putInt(0).putInt(0).putInt(0).putInt(0).putInt(1);
+        putTree(frame, REUSED_UNIT, 11L);
+        transport.getPeer().write((ByteBuffer) frame.flip());
+
+        delta = client.readPlayerContext().getWorld().getDelta();
+        assertDelta(delta.getMinionDelta(), new long[0], new long[]{1L, 2L, 4L}, new long[0], new long[0]);
+        assertDelta(delta.getTreeDelta(), new long[0], new long[]{10L}, new long[0], new long[]{11L});
+        assertFalse(delta.isBuildingArrayReused());
+        assertFalse(delta.isTreeArrayReused());
+    }
+
+    /**
+     * Sections read right away or one tick later, and ones that span several input buffers, decode as the eager
+     * client decodes them.
+     */
+    @Test
+    public void lazyWorldsEqualEagerWorlds() throws IOException {
+        LoopbackTransport eagerTransport = new LoopbackTransport();
+        RemoteProcessClient eagerClient = new RemoteProcessClient(eagerTransport);
+        LoopbackTransport lazyTransport = new LoopbackTransport();
+        RemoteProcessClient lazyClient = new RemoteProcessClient(lazyTransport);
+        lazyClient.setLazyDecoding(true);
+
+        WorldFrames frames = new WorldFrames(11L);
+        String previousEagerWorld = null;
+        World previousLazyWorld = null;
+
+        for (int tickIndex = 0; tickIndex < 40; ++tickIndex) {
+            ByteBuffer frame = frames.next(tickIndex % 10 == 5 ? 20000 : tickIndex * 7);
+            writeInChunks(lazyTransport.getPeer(), frame.duplicate(), 1000 + tickIndex);
+            eagerTransport.getPeer().write(frame);
+
+            String eagerWorld = describe(eagerClient.readPlayerContext().getWorld());
+            World lazyWorld = lazyClient.readPlayerContext().getWorld();
+
+            if (previousLazyWorld != null) {
+                assertEquals(previousEagerWorld, describe(previousLazyWorld));
+            }
+
+            if (tickIndex % 2 == 0) {
+                assertEquals(eagerWorld, describe(lazyWorld));
+                previousLazyWorld = null;
+            } else {
+                previousEagerWorld = eagerWorld;
+                previousLazyWorld = lazyWorld;
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lazySectionsExpireAfterTwoTicks() throws IOException {
+        LoopbackTransport transport = new LoopbackTransport();
+        RemoteProcessClient client = new RemoteProcessClient(transport);
+        client.setLazyDecoding(true);
+
+        WorldFrames frames = new WorldFrames(12L);
+        transport.getPeer().write(frames.next(10));
+        World world = client.readPlayerContext().getWorld();
+
+        transport.getPeer().write(frames.next(10));
+        transport.getPeer().write(frames.next(10));
+        client.readPlayerContext();
+        client.readPlayerContext();
+
+        world.getProjectiles();
+    }
+
+    /**
+     * Columns hold every unit the world holds and are refilled in place every tick, except those of buildings and
+     * trees, which are only refilled when their arrays are sent again.
+     */
+    @Test
+    public void columnsMatchDecodedUnits() throws IOException {
+        for (boolean lazyDecoding : new boolean[]{false, true}) {
+            LoopbackTransport transport = new LoopbackTransport();
+            RemoteProcessClient client = new RemoteProcessClient(transport);
+            client.setLazyDecoding(lazyDecoding);
+            client.setColumnarDecoding(true);
+
+            WorldFrames frames = new WorldFrames(13L);
+            WorldColumns columns = null;
+
+            for (int tickIndex = 0; tickIndex < 40; ++tickIndex) {
+                int projectileCount = tickIndex % 10 == 5 ? 20000 : tickIndex % 3 * 40;
+                transport.getPeer().write(frames.next(projectileCount));
+                World world = client.readPlayerContext().getWorld();
+
+                if (columns == null) {
+                    columns = world.getColumns();
+                }
+                assertSame(columns, world.getColumns());
+                assertStaticColumnsUntouched(columns.getBuildings(), frames.isBuildingArraySent(), world.getBuildings());
+                assertStaticColumnsUntouched(columns.getTrees(), frames.isTreeArraySent(), world.getTrees());
+
+                long firstProjectileId = columns.getProjectiles().getCount() == 0
+                        ? 0L : columns.getProjectiles().getId(0);
+
+                assertColumns(columns.getWizards(), world.getWizards());
+                assertColumns(columns.getMinions(), world.getMinions());
+                assertColumns(columns.getProjectiles(), world.getProjectiles());
+                assertColumns(columns.getBonuses(), world.getBonuses());
+                assertColumns(columns.getBuildings(), world.getBuildings());
+                assertColumns(columns.getTrees(), world.getTrees());
+
+                markStaticColumns(columns.getBuildings());
+                markStaticColumns(columns.getTrees());
+
+                // the next tick sends fewer projectiles into the same arrays, past the count the old ones remain
+                if (tickIndex % 3 == 2 && firstProjectileId != 0L) {
+                    transport.getPeer().write(frames.next(0));
+                    world = client.readPlayerContext().getWorld();
+                    ++tickIndex;
+
+                    assertEquals(0, world.getColumns().getProjectiles().getCount());
+                    assertEquals(firstProjectileId, columns.getProjectiles().getId(0));
+
+                    assertStaticColumnsUntouched(
+                            columns.getBuildings(), frames.isBuildingArraySent(), world.getBuildings()
+                    );
+                    assertStaticColumnsUntouched(columns.getTrees(), frames.isTreeArraySent(), world.getTrees());
+                    markStaticColumns(columns.getBuildings());
+                    markStaticColumns(columns.getTrees());
+                }
+            }
+        }
+    }
+
+    private static void markStaticColumns(UnitColumns columns) {
+        if (columns.getCount() > 0) {
+            columns.setLife(0, MARKED_LIFE, MARKED_LIFE);
+        }
+    }
+
+    /**
+     * Checks that columns marked on the previous tick kept the mark if the array was reused and restores them.
+     */
+    private static void assertStaticColumnsUntouched(UnitColumns columns, boolean arraySent, LivingUnit[] units) {
+        if (arraySent || columns.getCount() == 0) {
+            return;
+        }
+
+        assertEquals(MARKED_LIFE, columns.getLife(0));
+        for (LivingUnit unit : units) {
+            if (unit != null) {
+                columns.setLife(0, unit.getLife(), unit.getMaxLife());
+                break;
+            }
+        }
+    }
+
+    private static void assertColumns(UnitColumns columns, CircularUnit[] units) {
+        int index = 0;
+
+        for (CircularUnit unit : units) {
+            if (unit == null) {
+                continue;
+            }
+
+            assertEquals(unit.getId(), columns.getId(index));
+            assertEquals(unit.getX(), columns.getX(index), 0.0D);
+            assertEquals(unit.getY(), columns.getY(index), 0.0D);
+            assertEquals(unit.getSpeedX(), columns.getSpeedX(index), 0.0D);
+            assertEquals(unit.getSpeedY(), columns.getSpeedY(index), 0.0D);
+            assertEquals(unit.getAngle(), columns.getAngle(index), 0.0D);
+            assertEquals(unit.getRadius(), columns.getRadius(index), 0.0D);
+            assertSame(unit.getFaction(), columns.getFaction(index));
+
+            if (unit instanceof LivingUnit) {
+                assertEquals(((LivingUnit) unit).getLife(), columns.getLife(index));
+                assertEquals(((LivingUnit) unit).getMaxLife(), columns.getMaxLife(index));
+            } else {
+                assertEquals(0, columns.getLife(index));
+                assertEquals(0, columns.getMaxLife(index));
+            }
+
+            Enum<?> type = unit instanceof Minion ? ((Minion) unit).getType()
+                    : unit instanceof Building ? ((Building) unit).getType()
+                    : unit instanceof Projectile ? ((Projectile) unit).getType()
+                    : unit instanceof Bonus ? ((Bonus) unit).getType()
+                    : null;
+            assertEquals(type == null ? -1 : type.ordinal(), columns.getTypeOrdinal(index));
+
+            ++index;
+        }
+
+        assertEquals(index, columns.getCount());
+    }
+
+    private static void writeInChunks(Transport transport, ByteBuffer frame, int chunkSize) throws IOException {
+        while (frame.hasRemaining()) {
+            ByteBuffer chunk = frame.duplicate();
+            chunk.limit(StrictMath.min(frame.position() + chunkSize, frame.limit()));
+            transport.write(chunk);
+            frame.position(chunk.limit());
+        }
+    }
+
+    /**
+     * Lists every field of every unit of the world, reading the units through the public accessors.
+     */
+    private static String describe(World world) {
+        StringBuilder description = new StringBuilder();
+        description.append(world.getTickIndex()).append(' ').append(world.getTickCount()).append(' ');
+        description.append(world.getWidth()).append(' ').append(world.getHeight());
+
+        Object[][] sections = {
+                world.getPlayers(), world.getWizards(), world.getMinions(), world.getProjectiles(),
+                world.getBonuses(), world.getBuildings(), world.getTrees()
+        };
+        for (Object[] section : sections) {
+            description.append('\n');
+            appendValue(description, section);
+        }
+
+        return description.toString();
+    }
+
+    private static void appendValue(StringBuilder description, Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Enum
+                || value instanceof String) {
+            description.append(value);
+        } else if (value.getClass().isArray()) {
+            description.append('[');
+            for (int index = 0; index < Array.getLength(value); ++index) {
+                appendValue(description.append(index == 0 ? "" : ", "), Array.get(value, index));
+            }
+            description.append(']');
+        } else {
+            description.append(value.getClass().getSimpleName()).append('{');
+            for (Class<?> type = value.getClass(); type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        description.append(field.getName()).append('=');
+                        try {
+                            appendValue(description, field.get(value));
+                        } catch (IllegalAccessException e) {
+                            throw new AssertionError(e);
+                        }
+                        description.append(' ');
+                    }
+                }
+            }
+            description.append('}');
+        }
+    }
+
+    /**
+     * Compares the ids of every part regardless of order, through both the copying and the indexed accessors.
+     */
+    private static void assertDelta(
+            UnitDelta delta, long[] addedIds, long[] removedIds, long[] changedIds, long[] unchangedIds) {
+        assertIds(addedIds, delta.getAddedIds(), delta.getAddedCount());
+        assertIds(removedIds, delta.getRemovedIds(), delta.getRemovedCount());
+        assertIds(changedIds, delta.getChangedIds(), delta.getChangedCount());
+        assertIds(unchangedIds, delta.getUnchangedIds(), delta.getUnchangedCount());
+
+        for (int index = 0; index < delta.getAddedCount(); ++index) {
+            assertEquals(delta.getAddedIds()[index], delta.getAddedId(index));
+        }
+        for (int index = 0; index < delta.getRemovedCount(); ++index) {
+            assertEquals(delta.getRemovedIds()[index], delta.getRemovedId(index));
+        }
+        for (int index = 0; index < delta.getChangedCount(); ++index) {
+            assertEquals(delta.getChangedIds()[index], delta.getChangedId(index));
+        }
+        for (int index = 0; index < delta.getUnchangedCount(); ++index) {
+            assertEquals(delta.getUnchangedIds()[index], delta.getUnchangedId(index));
+        }
+    }
+
+    private static void assertIds(long[] expected, long[] actual, int count) {
+        assertEquals(expected.length, count);
+        long[] sorted = actual.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected, sorted);
+    }
+
+    private static ByteBuffer worldWithoutTrees(int tickIndex) {
+        ByteBuffer frame = startWorld(tickIndex);
+        frame.putInt(0);
+        frame.flip();
+        return frame;
+    }
+
+    private static ByteBuffer worldWithTree(int tickIndex, byte flag, long id) {
+        ByteBuffer frame = startWorld(tickIndex);
+        frame.putInt(1);
+        putTree(frame, flag, id);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Player context with no wizards of our own and a world with nothing but trees, up to the tree array.
+     */
+    private static ByteBuffer startWorld(int tickIndex) {
+        ByteBuffer frame = startFrame(tickIndex);
+        // minions, projectiles, bonuses and buildings are empty
+        frame.putInt(0).putInt(0).putInt(0).putInt(0);
+        return frame;
+    }
+
+    /**
+     * Player context with no wizards of our own, up to the minion array of the world. Players are reused and there
+     * are no wizards.
+     */
+    private static ByteBuffer startFrame(int tickIndex) {
+        ByteBuffer frame = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        frame.put(PLAYER_CONTEXT).put((byte) 1).putInt(0);
+        frame.put((byte) 1).putInt(tickIndex).putInt(20000).putDouble(4000.0D).putDouble(4000.0D);
+        frame.putInt(REUSED_ARRAY).putInt(0);
+        return frame;
+    }
+
+    private static void putTree(ByteBuffer frame, byte flag, long id) {
+        frame.put(flag).putLong(id);
+        if (flag == FULL_UNIT) {
+            frame.putDouble(100.0D * id).putDouble(200.0D).putDouble(0.0D).putDouble(0.0D).putDouble(0.0D);
+            frame.put((byte) 2).putDouble(30.0D).putInt(100).putInt(100).putInt(0);
+        }
+    }
+
+    private static void putMinion(ByteBuffer frame, byte flag, long id) {
+        frame.put(flag).putLong(id);
+        if (flag == FULL_UNIT) {
+            frame.putDouble(100.0D * id).putDouble(300.0D).putDouble(1.0D).putDouble(0.0D).putDouble(0.0D);
+            frame.put((byte) 1).putDouble(25.0D).putInt(100).putInt(100).putInt(0);
+            frame.put((byte) 0).putDouble(400.0D).putInt(12).putInt(60).putInt(0);
+        }
+    }
+
+    private static Move createMove(double speed) {
+        Move move = new Move();
+        move.setSpeed(speed);
+        move.setStrafeSpeed(-speed);
+        move.setTurn(0.5D);
+        move.setAction(ActionType.MAGIC_MISSILE);
+        move.setCastAngle(0.25D);
+        move.setMinCastDistance(100.0D);
+        move.setStatusTargetId(42L);
+        move.setSkillToLearn(SkillType.RANGE_BONUS_PASSIVE_1);
+        return move;
+    }
+
+    /**
+     * Consumes everything written without keeping it.
+     */
+    private static final class CountingTransport implements Transport {
+        private long byteCount;
+
+        @Override
+        public int read(ByteBuffer target) {
+            return -1;
+        }
+
+        @Override
+        public void write(ByteBuffer source) {
+            byteCount += source.remaining();
+            source.position(source.limit());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
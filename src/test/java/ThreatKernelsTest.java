@@ -0,0 +1,208 @@
+import model.BuildingType;
+import model.Faction;
+import model.Game;
+import model.MinionType;
+import model.Status;
+import model.Tree;
+import model.Unit;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the kernels against the per-point estimates they replaced, which computed ranges from {@link Game} and
+ * tested attack sectors with {@code atan2}.
+ */
+public class ThreatKernelsTest {
+    private static final int CASE_COUNT = 100000;
+
+    private final Game game = Games.createDefault();
+    private final ThreatKernels kernels = new ThreatKernels(game);
+
+    @Test
+    public void wizardKernelsMatchFormula() {
+        Random random = new Random(8L);
+        int hitCount = 0;
+
+        for (Danger danger : Danger.values()) {
+            ThreatKernel kernel = kernels.getWizardKernel(danger);
+            for (int caseIndex = 0; caseIndex < CASE_COUNT; ++caseIndex) {
+                Tree unit = createUnit(random, true);
+                int cooldownTicks = random.nextInt(60);
+                double x = unit.getX() + (random.nextDouble() * 2.0D - 1.0D) * 900.0D;
+                double y = unit.getY() + (random.nextDouble() * 2.0D - 1.0D) * 900.0D;
+
+                double expected = getWizardDamage(unit, cooldownTicks, x, y, danger);
+                assertEquals(expected, getDamage(kernel, unit, cooldownTicks, x, y), 0.0D);
+                hitCount += expected > 0.0D ? 1 : 0;
+            }
+        }
+
+        assertTrue(hitCount > 0);
+    }
+
+    @Test
+    public void minionKernelsMatchFormula() {
+        Random random = new Random(9L);
+        int hitCount = 0;
+
+        for (Danger danger : Danger.values()) {
+            for (MinionType type : MinionType.values()) {
+                ThreatKernel kernel = kernels.getMinionKernel(danger, type);
+                for (int caseIndex = 0; caseIndex < CASE_COUNT; ++caseIndex) {
+                    Tree unit = createUnit(random, true);
+                    int cooldownTicks = random.nextInt(30);
+                    double x = unit.getX() + (random.nextDouble() * 2.0D - 1.0D) * 600.0D;
+                    double y = unit.getY() + (random.nextDouble() * 2.0D - 1.0D) * 600.0D;
+
+                    double expected = getMinionDamage(unit, type, cooldownTicks, x, y, danger);
+                    assertEquals(expected, getDamage(kernel, unit, cooldownTicks, x, y), 0.0D);
+                    hitCount += expected > 0.0D ? 1 : 0;
+                }
+            }
+        }
+
+        assertTrue(hitCount > 0);
+    }
+
+    @Test
+    public void buildingKernelsMatchFormula() {
+        Random random = new Random(10L);
+        int hitCount = 0;
+
+        for (Danger danger : Danger.values()) {
+            for (BuildingType type : BuildingType.values()) {
+                ThreatKernel kernel = kernels.getBuildingKernel(danger, type);
+                ThreatKernel markKernel = kernels.getBuildingMarkKernel(danger, type);
+                for (int caseIndex = 0; caseIndex < CASE_COUNT; ++caseIndex) {
+                    Tree unit = createUnit(random, false);
+                    int cooldownTicks = random.nextInt(240);
+                    double x = unit.getX() + (random.nextDouble() * 2.0D - 1.0D) * 1500.0D;
+                    double y = unit.getY() + (random.nextDouble() * 2.0D - 1.0D) * 1500.0D;
+
+                    double expected = getBuildingDamage(unit, type, cooldownTicks, x, y, danger);
+                    assertEquals(expected, getDamage(kernel, unit, cooldownTicks, x, y), 0.0D);
+                    hitCount += expected > 0.0D ? 1 : 0;
+
+                    assertEquals(
+                            getBuildingMarkDamage(unit, type, x, y, danger),
+                            markKernel.getDamage(unit.getX(), unit.getY(), x, y), 0.0D
+                    );
+                }
+            }
+        }
+
+        assertTrue(hitCount > 0);
+    }
+
+    private static double getDamage(ThreatKernel kernel, Unit unit, int cooldownTicks, double x, double y) {
+        return kernel.getDamage(
+                unit, cooldownTicks, StrictMath.cos(unit.getAngle()), StrictMath.sin(unit.getAngle()), x, y
+        );
+    }
+
+    private double getWizardDamage(Unit unit, int cooldownTicks, double x, double y, Danger danger) {
+        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
+        dangerRatio = danger == Danger.LOW ? 0.8 : dangerRatio;
+        double attackRadius = (game.getWizardCastRange() + game.getWizardRadius()) * dangerRatio;
+        double attackSector = danger == Danger.HIGH ? game.getStaffSector() * 10 : game.getStaffSector();
+        double distance = StrictMath.hypot(x - unit.getX(), y - unit.getY());
+        if (distance > attackRadius * 2.0 || cooldownTicks > 40) {
+            return 0.0;
+        }
+        double angle = unit.getAngleTo(x, y);
+        if (distance <= attackRadius || getPotentialPositionDistance(x, y, unit) <= attackRadius) {
+            if (StrictMath.abs(angle) < game.getStaffSector() / 2.0
+                    || StrictMath.abs(angle) - game.getWizardMaxTurnAngle() < attackSector) {
+                return game.getStaffDamage();
+            }
+        }
+        return 0.0;
+    }
+
+    private double getMinionDamage(Unit unit, MinionType type, int cooldownTicks, double x, double y, Danger danger) {
+        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
+        double distance = StrictMath.hypot(x - unit.getX(), y - unit.getY());
+        double potentialPositionDistance = getPotentialPositionDistance(x, y, unit);
+        double angle = unit.getAngleTo(x, y);
+
+        if (type == MinionType.FETISH_BLOWDART) {
+            double sector = game.getFetishBlowdartAttackSector();
+            double attackRadius = (game.getFetishBlowdartAttackRange() + game.getMinionRadius()
+                    + game.getWizardRadius()) * dangerRatio;
+            double attackSector = danger == Danger.HIGH ? sector * 10 : sector;
+            if (cooldownTicks > 10) {
+                return 0.0;
+            }
+            if (distance <= attackRadius || potentialPositionDistance <= attackRadius) {
+                if (StrictMath.abs(angle) < sector / 2.0D || StrictMath.abs(angle) - sector < attackSector) {
+                    return game.getDartDirectDamage();
+                }
+            }
+        } else {
+            double sector = game.getOrcWoodcutterAttackSector();
+            double attackRadius = (game.getOrcWoodcutterAttackRange() + 150) * dangerRatio;
+            double attackSector = danger == Danger.HIGH ? sector * 10 : sector;
+            if (distance <= attackRadius || potentialPositionDistance <= attackRadius) {
+                if (StrictMath.abs(angle) < sector / 2.0D || StrictMath.abs(angle) - sector < attackSector) {
+                    return game.getOrcWoodcutterDamage();
+                }
+            }
+        }
+        return 0.0;
+    }
+
+    private double getBuildingDamage(
+            Unit unit, BuildingType type, int cooldownTicks, double x, double y, Danger danger) {
+        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
+        double distance = StrictMath.hypot(x - unit.getX(), y - unit.getY());
+        if (cooldownTicks > 100 && distance > 460) {
+            return 0.0;
+        }
+        if (type != BuildingType.FACTION_BASE
+                && distance <= (game.getGuardianTowerRadius() + game.getGuardianTowerAttackRange()) * dangerRatio) {
+            return game.getGuardianTowerDamage();
+        }
+        return 0.0;
+    }
+
+    private double getBuildingMarkDamage(Unit unit, BuildingType type, double x, double y, Danger danger) {
+        double dangerRatio = danger == Danger.HIGH ? 1.3 : 1.0;
+        double distance = StrictMath.hypot(x - unit.getX(), y - unit.getY());
+        if (type == BuildingType.FACTION_BASE) {
+            if (distance <= (game.getFactionBaseRadius() + game.getFactionBaseAttackRange()) * dangerRatio) {
+                return game.getFactionBaseDamage();
+            }
+        } else if (type == BuildingType.GUARDIAN_TOWER) {
+            if (distance <= (game.getGuardianTowerRadius() + game.getGuardianTowerAttackRange()) * dangerRatio) {
+                return game.getGuardianTowerDamage();
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * @return distance from the point to the unit's position on the next tick, or {@code Double.MAX_VALUE} for a unit
+     * that doesn't move
+     */
+    private static double getPotentialPositionDistance(double x, double y, Unit unit) {
+        double speedX = unit.getSpeedX();
+        double speedY = unit.getSpeedY();
+        if (speedX != 0.0 || speedY != 0.0) {
+            return StrictMath.hypot(x - (unit.getX() + speedX), y - (unit.getY() + speedY));
+        }
+        return Double.MAX_VALUE;
+    }
+
+    private static Tree createUnit(Random random, boolean moving) {
+        double speedX = moving && random.nextInt(4) > 0 ? random.nextDouble() * 8.0D - 4.0D : 0.0D;
+        double speedY = moving && random.nextInt(4) > 0 ? random.nextDouble() * 8.0D - 4.0D : 0.0D;
+        return new Tree(
+                1L, 2000.0D, 2000.0D, speedX, speedY, (random.nextDouble() * 2.0D - 1.0D) * StrictMath.PI,
+                Faction.RENEGADES, 35.0D, 100, 100, new Status[0]
+        );
+    }
+}
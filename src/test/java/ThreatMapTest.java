@@ -0,0 +1,213 @@
+import model.BuildingType;
+import model.Faction;
+import model.MinionType;
+import model.Status;
+import model.Tree;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ThreatMapTest {
+    private static final double MAP_SIZE = 4000.0D;
+    private static final double CELL_SIZE = 100.0D;
+    private static final int SOURCE_COUNT = 60;
+    private static final int POINT_COUNT = 20000;
+
+    /**
+     * Footprints are listed as the strategy lists them; wherever the map reports a point out of reach, the exact
+     * estimate of every source must be zero.
+     */
+    @Test
+    public void outOfReachPointsAreNotThreatened() {
+        ThreatKernels kernels = new ThreatKernels(Games.createDefault());
+        Random random = new Random(5L);
+        int outOfReachCount = 0;
+
+        for (Danger danger : Danger.values()) {
+            List<Source> sources = new ArrayList<>();
+            for (int sourceIndex = 0; sourceIndex < SOURCE_COUNT; ++sourceIndex) {
+                sources.add(createSource(random, kernels, danger, sourceIndex));
+            }
+
+            ThreatMap threats = new ThreatMap(MAP_SIZE, MAP_SIZE, CELL_SIZE);
+            fill(threats, sources);
+
+            for (int pointIndex = 0; pointIndex < POINT_COUNT; ++pointIndex) {
+                double x;
+                double y;
+                if (pointIndex % 2 == 0) {
+                    x = random.nextDouble() * MAP_SIZE;
+                    y = random.nextDouble() * MAP_SIZE;
+                } else {
+                    // just outside of some footprint, where a rasterisation error would show
+                    Source source = sources.get(random.nextInt(sources.size()));
+                    double angle = random.nextDouble() * 2.0D * StrictMath.PI;
+                    double distance = StrictMath.max(0.0D, source.reach) + random.nextDouble() * CELL_SIZE;
+                    x = source.unit.getX() + distance * StrictMath.cos(angle);
+                    y = source.unit.getY() + distance * StrictMath.sin(angle);
+                }
+
+                if (threats.isOutOfReach(x, y)) {
+                    ++outOfReachCount;
+                    for (Source source : sources) {
+                        assertEquals(0.0D, source.getDamage(x, y), 0.0D);
+                    }
+                }
+            }
+        }
+
+        assertTrue(outOfReachCount > 0);
+    }
+
+    /**
+     * Sources are added, removed and moved from tick to tick, and the static list changes now and then; after every
+     * tick the map must report the same points out of reach as a map built from scratch.
+     */
+    @Test
+    public void incrementalCoverageEqualsRebuild() {
+        ThreatKernels kernels = new ThreatKernels(Games.createDefault());
+        Random random = new Random(6L);
+        List<Source> sources = new ArrayList<>();
+        ThreatMap threats = new ThreatMap(MAP_SIZE, MAP_SIZE, CELL_SIZE);
+
+        for (int tickIndex = 0; tickIndex < 200; ++tickIndex) {
+            List<Source> nextSources = new ArrayList<>();
+            for (Source source : sources) {
+                int change = random.nextInt(10);
+                if (change == 0 && !source.isStatic) {
+                    continue;
+                }
+                nextSources.add(change < 4 && !source.isStatic ? source.moved(random) : source);
+            }
+
+            // statics are occasionally replaced; a new dynamic source may reuse an id that left
+            if (tickIndex % 25 == 0) {
+                nextSources.removeIf(source -> source.isStatic && random.nextBoolean());
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Source source : nextSources) {
+                ids.add(source.unit.getId());
+            }
+            while (nextSources.size() < SOURCE_COUNT && random.nextInt(4) > 0) {
+                long id = random.nextInt(2 * SOURCE_COUNT);
+                if (ids.add(id)) {
+                    nextSources.add(createSource(random, kernels, Danger.NORMAL, id));
+                }
+            }
+            sources = nextSources;
+
+            fill(threats, sources);
+            ThreatMap rebuilt = new ThreatMap(MAP_SIZE, MAP_SIZE, CELL_SIZE);
+            fill(rebuilt, sources);
+
+            for (double y = CELL_SIZE / 2.0D; y < MAP_SIZE; y += CELL_SIZE) {
+                for (double x = CELL_SIZE / 2.0D; x < MAP_SIZE; x += CELL_SIZE) {
+                    assertEquals(rebuilt.isOutOfReach(x, y), threats.isOutOfReach(x, y));
+                }
+            }
+        }
+    }
+
+    private static void fill(ThreatMap threats, List<Source> sources) {
+        threats.beginTick();
+        for (Source source : sources) {
+            if (source.isStatic) {
+                threats.addStaticCircle(
+                        source.unit.getX(), source.unit.getY(), source.reach, source.kernel.getDamage()
+                );
+            } else {
+                threats.putDynamicCircle(
+                        source.unit.getId(), source.unit.getX(), source.unit.getY(), source.reach,
+                        source.kernel.getDamage()
+                );
+            }
+        }
+        threats.endTick();
+    }
+
+    /**
+     * An enemy wizard, minion, tower or building mark with a random position, speed, facing and cooldown.
+     */
+    private static Source createSource(Random random, ThreatKernels kernels, Danger danger, long id) {
+        double x = random.nextDouble() * MAP_SIZE;
+        double y = random.nextDouble() * MAP_SIZE;
+        double angle = (random.nextDouble() * 2.0D - 1.0D) * StrictMath.PI;
+        double speedX = random.nextInt(3) == 0 ? 0.0D : random.nextDouble() * 8.0D - 4.0D;
+        double speedY = random.nextInt(3) == 0 ? 0.0D : random.nextDouble() * 8.0D - 4.0D;
+
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Source(
+                        createUnit(id, x, y, speedX, speedY, angle), kernels.getWizardKernel(danger),
+                        random.nextInt(60), false, false
+                );
+            case 1:
+                MinionType minionType = MinionType.values()[random.nextInt(MinionType.values().length)];
+                return new Source(
+                        createUnit(id, x, y, speedX, speedY, angle), kernels.getMinionKernel(danger, minionType),
+                        random.nextInt(30), false, false
+                );
+            case 2:
+                BuildingType buildingType = BuildingType.values()[random.nextInt(BuildingType.values().length)];
+                return new Source(
+                        createUnit(id, x, y, 0.0D, 0.0D, 0.0D), kernels.getBuildingKernel(danger, buildingType),
+                        random.nextInt(240), true, false
+                );
+            default:
+                buildingType = BuildingType.values()[random.nextInt(BuildingType.values().length)];
+                return new Source(
+                        createUnit(id, x, y, 0.0D, 0.0D, 0.0D), kernels.getBuildingMarkKernel(danger, buildingType),
+                        0, true, true
+                );
+        }
+    }
+
+    private static Tree createUnit(long id, double x, double y, double speedX, double speedY, double angle) {
+        return new Tree(id, x, y, speedX, speedY, angle, Faction.RENEGADES, 35.0D, 100, 100, new Status[0]);
+    }
+
+    private static final class Source {
+        private final Tree unit;
+        private final ThreatKernel kernel;
+        private final int cooldownTicks;
+        private final boolean isStatic;
+        private final boolean mark;
+        private final double reach;
+
+        private Source(Tree unit, ThreatKernel kernel, int cooldownTicks, boolean isStatic, boolean mark) {
+            this.unit = unit;
+            this.kernel = kernel;
+            this.cooldownTicks = cooldownTicks;
+            this.isStatic = isStatic;
+            this.mark = mark;
+            this.reach = kernel.getReach(cooldownTicks, StrictMath.hypot(unit.getSpeedX(), unit.getSpeedY()));
+        }
+
+        private double getDamage(double x, double y) {
+            if (mark) {
+                return kernel.getDamage(unit.getX(), unit.getY(), x, y);
+            }
+
+            return kernel.getDamage(
+                    unit, cooldownTicks, StrictMath.cos(unit.getAngle()), StrictMath.sin(unit.getAngle()), x, y
+            );
+        }
+
+        private Source moved(Random random) {
+            return new Source(
+                    createUnit(
+                            unit.getId(), unit.getX() + unit.getSpeedX(), unit.getY() + unit.getSpeedY(),
+                            unit.getSpeedX(), unit.getSpeedY(), unit.getAngle() + random.nextDouble() - 0.5D
+                    ),
+                    kernel, random.nextInt(60), false, false
+            );
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Round-trip latency of the transports under a game-like exchange: the client writes a {@code MOVES}-sized message and
+ * waits for a {@code PLAYER_CONTEXT}-sized answer from an echo server in the same JVM.
+ * <p>
+ * Usage: {@code TransportLatencyBenchmark [roundTrips] [requestBytes] [responseBytes]}. The Unix domain socket run is
+ * skipped on Java versions before 16.
+ */
+public final class TransportLatencyBenchmark {
+    private static final int DEFAULT_ROUND_TRIPS = 20000;
+    private static final int DEFAULT_REQUEST_SIZE_BYTES = 70;
+    private static final int DEFAULT_RESPONSE_SIZE_BYTES = 4500;
+
+    private final int roundTrips;
+    private final int requestSize;
+    private final int responseSize;
+
+    private TransportLatencyBenchmark(int roundTrips, int requestSize, int responseSize) {
+        this.roundTrips = roundTrips;
+        this.requestSize = requestSize;
+        this.responseSize = responseSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        TransportLatencyBenchmark benchmark = new TransportLatencyBenchmark(
+                args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUND_TRIPS,
+                args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUEST_SIZE_BYTES,
+                args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RESPONSE_SIZE_BYTES
+        );
+
+        System.out.printf(
+                "%d round trips, %d-byte requests, %d-byte responses%n",
+                benchmark.roundTrips, benchmark.requestSize, benchmark.responseSize
+        );
+        benchmark.runTcp();
+        benchmark.runUnixSocket();
+        benchmark.runLoopback();
+    }
+
+    private void runTcp() throws Exception {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+
+            Thread server = startEchoServer(serverChannel);
+            try (Transport client = new TcpTransport(InetAddress.getLoopbackAddress().getHostAddress(), port)) {
+                measure("tcp", client);
+            }
+            server.join();
+        }
+    }
+
+    private void runUnixSocket() throws Exception {
+        ProtocolFamily unix;
+        try {
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (IllegalArgumentException e) {
+            System.out.println("unix      skipped, requires Java 16 or newer");
+            return;
+        }
+
+        Path directory = Files.createTempDirectory("transport");
+        Path socketPath = directory.resolve("benchmark.sock");
+
+        try (ServerSocketChannel serverChannel = (ServerSocketChannel) ServerSocketChannel.class
+                .getMethod("open", ProtocolFamily.class).invoke(null, unix)) {
+            serverChannel.bind((SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", Path.class).invoke(null, socketPath));
+
+            Thread server = startEchoServer(serverChannel);
+            try (Transport client = new UnixSocketTransport(socketPath.toString())) {
+                measure("unix", client);
+            }
+            server.join();
+        } finally {
+            Files.deleteIfExists(socketPath);
+            Files.delete(directory);
+        }
+    }
+
+    private void runLoopback() throws Exception {
+        LoopbackTransport client = new LoopbackTransport();
+        Thread server = startEchoServer(client.getPeer());
+        try {
+            measure("loopback", client);
+        } finally {
+            client.close();
+        }
+        server.join();
+    }
+
+    private Thread startEchoServer(ServerSocketChannel serverChannel) {
+        return startEchoServer(() -> new ChannelTransport(serverChannel.accept()));
+    }
+
+    private Thread startEchoServer(Transport transport) {
+        return startEchoServer(() -> transport);
+    }
+
+    private Thread startEchoServer(TransportSupplier transportSupplier) {
+        Thread thread = new Thread(() -> {
+            try (Transport transport = transportSupplier.get()) {
+                ByteBuffer request = ByteBuffer.allocateDirect(requestSize);
+                ByteBuffer response = ByteBuffer.allocateDirect(responseSize);
+
+                while (readFully(transport, request)) {
+                    response.clear();
+                    transport.write(response);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "echo-server");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void measure(String name, Transport client) throws IOException {
+        ByteBuffer request = ByteBuffer.allocateDirect(requestSize);
+        ByteBuffer response = ByteBuffer.allocateDirect(responseSize);
+
+        // the first half warms up the JIT and the connection
+        long[] nanos = new long[roundTrips];
+        for (int pass = 0; pass < 2; ++pass) {
+            for (int i = 0; i < roundTrips; ++i) {
+                long start = System.nanoTime();
+                request.clear();
+                client.write(request);
+                if (!readFully(client, response)) {
+                    throw new IOException("Echo server closed the connection.");
+                }
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+
+        Arrays.sort(nanos);
+        System.out.printf(
+                "%-9s median %7.1f us, p99 %7.1f us, max %8.1f us%n", name,
+                nanos[roundTrips / 2] / 1000.0D, nanos[(int) (roundTrips * 0.99D)] / 1000.0D,
+                nanos[roundTrips - 1] / 1000.0D
+        );
+    }
+
+    private static boolean readFully(Transport transport, ByteBuffer target) throws IOException {
+        target.clear();
+        while (target.hasRemaining()) {
+            if (transport.read(target) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface TransportSupplier {
+        Transport get() throws IOException;
+    }
+
+    /**
+     * Server side of an accepted socket connection.
+     */
+    private static final class ChannelTransport implements Transport {
+        private final SocketChannel channel;
+
+        private ChannelTransport(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            if (channel.getLocalAddress() instanceof InetSocketAddress) {
+                channel.socket().setTcpNoDelay(true);
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            return channel.read(target);
+        }
+
+        @Override
+        public void write(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
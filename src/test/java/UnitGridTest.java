@@ -0,0 +1,88 @@
+import model.Faction;
+import model.Status;
+import model.Tree;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class UnitGridTest {
+    private static final int UNIT_COUNT = 500;
+    private static final int QUERY_COUNT = 2000;
+
+    /**
+     * Includes queries reaching past the map, with zero and negative radii, and units exactly on the query circle.
+     */
+    @Test
+    public void circleQueryMatchesDistanceTestOfEveryUnit() {
+        Random random = new Random(2L);
+        List<Tree> units = new ArrayList<>();
+        for (int unitIndex = 0; unitIndex < UNIT_COUNT; ++unitIndex) {
+            // a lattice puts many units at equal, exactly representable distances
+            double x = unitIndex % 2 == 0 ? random.nextDouble() * 4000.0D : 100.0D * random.nextInt(41);
+            double y = unitIndex % 2 == 0 ? random.nextDouble() * 4000.0D : 100.0D * random.nextInt(41);
+            units.add(new Tree(unitIndex, x, y, 0.0D, 0.0D, 0.0D, Faction.OTHER, 30.0D, 100, 100, new Status[0]));
+        }
+
+        UnitGrid grid = new UnitGrid(4000.0D, 4000.0D, 200.0D);
+        grid.build(units);
+
+        for (int queryIndex = 0; queryIndex < QUERY_COUNT; ++queryIndex) {
+            double x = queryIndex % 2 == 0 ? random.nextDouble() * 4400.0D - 200.0D : 100.0D * random.nextInt(41);
+            double y = queryIndex % 2 == 0 ? random.nextDouble() * 4400.0D - 200.0D : 100.0D * random.nextInt(41);
+            double radius = queryIndex % 2 == 0 ? random.nextDouble() * 1000.0D - 50.0D : 100.0D * random.nextInt(6);
+
+            int count = grid.queryCircle(x, y, radius);
+
+            int resultIndex = 0;
+            for (int unitIndex = 0; unitIndex < UNIT_COUNT; ++unitIndex) {
+                double dx = units.get(unitIndex).getX() - x;
+                double dy = units.get(unitIndex).getY() - y;
+                if (radius >= 0.0D && dx * dx + dy * dy <= radius * radius) {
+                    assertEquals(unitIndex, grid.getResult(resultIndex++));
+                }
+            }
+            assertEquals(resultIndex, count);
+        }
+    }
+
+    @Test
+    public void sectorQueryMatchesConeTestOfEveryUnit() {
+        Random random = new Random(1L);
+        List<Tree> units = new ArrayList<>();
+        for (int unitIndex = 0; unitIndex < UNIT_COUNT; ++unitIndex) {
+            units.add(new Tree(
+                    unitIndex, random.nextDouble() * 4000.0D, random.nextDouble() * 4000.0D, 0.0D, 0.0D, 0.0D,
+                    Faction.OTHER, 30.0D, 100, 100, new Status[0]
+            ));
+        }
+
+        UnitGrid grid = new UnitGrid(4000.0D, 4000.0D, 200.0D);
+        grid.build(units);
+
+        for (int queryIndex = 0; queryIndex < QUERY_COUNT; ++queryIndex) {
+            double x = random.nextDouble() * 4000.0D;
+            double y = random.nextDouble() * 4000.0D;
+            double radius = random.nextDouble() * 800.0D;
+            double angle = (random.nextDouble() * 2.0D - 1.0D) * StrictMath.PI;
+            double facingX = StrictMath.cos(angle);
+            double facingY = StrictMath.sin(angle);
+            FacingCone cone = new FacingCone(random.nextDouble() * 1.2D * StrictMath.PI);
+
+            int count = grid.querySector(x, y, radius, cone, facingX, facingY);
+
+            int resultIndex = 0;
+            for (int unitIndex = 0; unitIndex < UNIT_COUNT; ++unitIndex) {
+                double dx = units.get(unitIndex).getX() - x;
+                double dy = units.get(unitIndex).getY() - y;
+                if (dx * dx + dy * dy <= radius * radius && cone.contains(dx, dy, facingX, facingY)) {
+                    assertEquals(unitIndex, grid.getResult(resultIndex++));
+                }
+            }
+            assertEquals(resultIndex, count);
+        }
+    }
+}
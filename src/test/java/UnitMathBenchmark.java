@@ -0,0 +1,63 @@
+import java.util.Random;
+
+/**
+ * Throughput of the {@link UnitMath#STRICT} and {@link UnitMath#FAST} primitives over random vectors of map-sized
+ * coordinates, as the strategy feeds them.
+ * <p>
+ * Usage: {@code UnitMathBenchmark [vectorCount] [passes]}. Each primitive runs over the same vectors; the first half of
+ * the passes warms up the JIT and isn't reported.
+ */
+public final class UnitMathBenchmark {
+    private static final int DEFAULT_VECTOR_COUNT = 1 << 16;
+    private static final int DEFAULT_PASSES = 400;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int passes;
+
+    private UnitMathBenchmark(int vectorCount, int passes) {
+        this.xs = new double[vectorCount];
+        this.ys = new double[vectorCount];
+        this.passes = passes;
+
+        Random random = new Random(1L);
+        for (int vectorIndex = 0; vectorIndex < vectorCount; ++vectorIndex) {
+            xs[vectorIndex] = (random.nextDouble() * 2.0D - 1.0D) * 4000.0D;
+            ys[vectorIndex] = (random.nextDouble() * 2.0D - 1.0D) * 4000.0D;
+        }
+    }
+
+    public static void main(String[] args) {
+        UnitMathBenchmark benchmark = new UnitMathBenchmark(
+                args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VECTOR_COUNT,
+                args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PASSES
+        );
+
+        System.out.printf("%d vectors, %d passes%n", benchmark.xs.length, benchmark.passes);
+        benchmark.measure("strict hypot", UnitMath.STRICT, false);
+        benchmark.measure("fast hypot", UnitMath.FAST, false);
+        benchmark.measure("strict atan2", UnitMath.STRICT, true);
+        benchmark.measure("fast atan2", UnitMath.FAST, true);
+    }
+
+    private void measure(String name, UnitMath math, boolean angles) {
+        double checksum = 0.0D;
+        long nanos = 0L;
+
+        for (int pass = 0; pass < passes; ++pass) {
+            long start = System.nanoTime();
+            for (int vectorIndex = 0; vectorIndex < xs.length; ++vectorIndex) {
+                checksum += angles
+                        ? math.atan2(ys[vectorIndex], xs[vectorIndex])
+                        : math.hypot(xs[vectorIndex], ys[vectorIndex]);
+            }
+            if (pass >= passes / 2) {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        // the checksum keeps the JIT from dropping the loop
+        long calls = (long) (passes - passes / 2) * xs.length;
+        System.out.printf("%-13s %6.2f ns/call (checksum %.3e)%n", name, (double) nanos / calls, checksum);
+    }
+}
@@ -0,0 +1,74 @@
+import model.Faction;
+import model.Status;
+import model.Tree;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UnitMathTest {
+    private static final int SAMPLE_COUNT = 1000000;
+
+    @Test
+    public void fastAtan2StaysWithinDocumentedError() {
+        Random random = new Random(1L);
+        double maxError = 0.0D;
+
+        for (int sampleIndex = 0; sampleIndex < SAMPLE_COUNT; ++sampleIndex) {
+            double scale = StrictMath.pow(10.0D, random.nextInt(8) - 3);
+            double y = (random.nextDouble() * 2.0D - 1.0D) * scale;
+            double x = (random.nextDouble() * 2.0D - 1.0D) * scale;
+            maxError = StrictMath.max(maxError, getAngleError(y, x));
+        }
+
+        // axes and octant boundaries, where the argument reduction switches branches
+        double[] coordinates = {-1.0D, -0.5D, 0.0D, 0.5D, 1.0D};
+        for (double y : coordinates) {
+            for (double x : coordinates) {
+                maxError = StrictMath.max(maxError, getAngleError(y, x));
+            }
+        }
+
+        assertTrue("Fast atan2 error " + maxError + '.', maxError <= UnitMath.FAST_ANGLE_ERROR);
+    }
+
+    @Test
+    public void fastHypotStaysWithinTwoUlps() {
+        Random random = new Random(2L);
+
+        for (int sampleIndex = 0; sampleIndex < SAMPLE_COUNT; ++sampleIndex) {
+            double dx = (random.nextDouble() * 2.0D - 1.0D) * 4000.0D;
+            double dy = (random.nextDouble() * 2.0D - 1.0D) * 4000.0D;
+            double expected = StrictMath.hypot(dx, dy);
+            assertEquals(expected, UnitMath.FAST.hypot(dx, dy), 2.0D * StrictMath.ulp(expected));
+        }
+    }
+
+    @Test
+    public void strictMatchesUnitMethods() {
+        Random random = new Random(3L);
+
+        for (int sampleIndex = 0; sampleIndex < SAMPLE_COUNT / 10; ++sampleIndex) {
+            Tree unit = new Tree(
+                    sampleIndex, random.nextDouble() * 4000.0D, random.nextDouble() * 4000.0D, 0.0D, 0.0D,
+                    (random.nextDouble() * 2.0D - 1.0D) * StrictMath.PI, Faction.OTHER, 30.0D, 100, 100,
+                    new Status[0]
+            );
+            double x = random.nextDouble() * 4000.0D;
+            double y = random.nextDouble() * 4000.0D;
+
+            assertEquals(unit.getDistanceTo(x, y), UnitMath.STRICT.getDistanceTo(unit, x, y), 0.0D);
+            assertEquals(unit.getAngleTo(x, y), UnitMath.STRICT.getAngleTo(unit, x, y), 0.0D);
+        }
+    }
+
+    /**
+     * @return the angular distance between the fast and the strict arctangent, so {@code PI} and {@code -PI} agree
+     */
+    private static double getAngleError(double y, double x) {
+        double error = StrictMath.abs(UnitMath.FAST.atan2(y, x) - StrictMath.atan2(y, x));
+        return StrictMath.min(error, 2.0D * StrictMath.PI - error);
+    }
+}
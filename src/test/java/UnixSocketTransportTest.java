@@ -0,0 +1,40 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+import static org.junit.Assume.assumeTrue;
+
+public class UnixSocketTransportTest {
+    @Before
+    public void setUp() {
+        boolean supported;
+        try {
+            StandardProtocolFamily.valueOf("UNIX");
+            supported = true;
+        } catch (IllegalArgumentException e) {
+            supported = false;
+        }
+        assumeTrue("Unix domain sockets require Java 16 or newer.", supported);
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void invalidPathIsReportedAsSuch() throws IOException {
+        new UnixSocketTransport("game\u0000.sock");
+    }
+
+    @Test(expected = SocketException.class)
+    public void missingSocketIsReportedAsConnectionFailure() throws IOException {
+        Path directory = Files.createTempDirectory("transport");
+        try {
+            new UnixSocketTransport(directory.resolve("missing.sock").toString());
+        } finally {
+            Files.delete(directory);
+        }
+    }
+}
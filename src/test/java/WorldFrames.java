@@ -0,0 +1,263 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Encodes random player contexts the way the game server does: players, buildings and trees are sent once and then
+ * reused by array or by id, minions are reused by id while they stay in sight, and some elements are absent.
+ */
+final class WorldFrames {
+    private static final byte PLAYER_CONTEXT = 6;
+    private static final byte FULL_UNIT = 1;
+    private static final byte REUSED_UNIT = 100;
+    private static final int REUSED_ARRAY = -1;
+
+    private static final int FACTION_COUNT = 4;
+    private static final int STATUS_TYPE_COUNT = 5;
+    private static final int SKILL_TYPE_COUNT = 25;
+    private static final int LANE_TYPE_COUNT = 3;
+    private static final int MINION_TYPE_COUNT = 2;
+    private static final int PROJECTILE_TYPE_COUNT = 4;
+    private static final int BONUS_TYPE_COUNT = 3;
+    private static final int BUILDING_TYPE_COUNT = 2;
+
+    private static final long FIRST_WIZARD_ID = 1L;
+    private static final int WIZARD_COUNT = 10;
+    private static final long FIRST_BUILDING_ID = 20L;
+    private static final int BUILDING_COUNT = 8;
+    private static final long FIRST_TREE_ID = 50L;
+    private static final int TREE_COUNT = 40;
+    private static final long FIRST_MINION_ID = 100L;
+    private static final int MINION_COUNT = 40;
+
+    private final Random random;
+
+    private int tickIndex;
+    private long nextProjectileId = 1000000L;
+
+    private List<Long> previousMinionIds = new ArrayList<>();
+    private List<Long> previousBuildingIds = new ArrayList<>();
+    private List<Long> previousTreeIds = new ArrayList<>();
+
+    private boolean buildingsSent;
+    private boolean treesSent;
+
+    WorldFrames(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Encodes the next tick. A large projectile count makes the frame span several input buffers of the client.
+     */
+    ByteBuffer next(int projectileCount) {
+        ByteBuffer frame = ByteBuffer.allocate((1 << 16) + 80 * projectileCount).order(ByteOrder.LITTLE_ENDIAN);
+
+        frame.put(PLAYER_CONTEXT).put((byte) 1).putInt(0);
+        frame.put((byte) 1).putInt(tickIndex).putInt(20000).putDouble(4000.0D).putDouble(4000.0D);
+
+        putPlayers(frame);
+        putWizards(frame);
+        putMinions(frame);
+        putProjectiles(frame, projectileCount);
+        putBonuses(frame);
+        buildingsSent = putStaticUnits(frame, FIRST_BUILDING_ID, BUILDING_COUNT, previousBuildingIds);
+        treesSent = putStaticUnits(frame, FIRST_TREE_ID, TREE_COUNT, previousTreeIds);
+
+        ++tickIndex;
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * @return Whether the last frame resent buildings, as opposed to reusing the previous array.
+     */
+    boolean isBuildingArraySent() {
+        return buildingsSent;
+    }
+
+    /**
+     * @return Whether the last frame resent trees, as opposed to reusing the previous array.
+     */
+    boolean isTreeArraySent() {
+        return treesSent;
+    }
+
+    private void putPlayers(ByteBuffer frame) {
+        if (tickIndex > 0 && random.nextBoolean()) {
+            frame.putInt(REUSED_ARRAY);
+            return;
+        }
+
+        frame.putInt(3);
+        for (long id = 1L; id <= 2L; ++id) {
+            if (tickIndex > 0 && random.nextBoolean()) {
+                frame.put(REUSED_UNIT).putLong(id);
+            } else {
+                byte[] name = ("Player " + id + " at " + tickIndex).getBytes(StandardCharsets.UTF_8);
+                frame.put(FULL_UNIT).putLong(id).put((byte) (id == 1L ? 1 : 0)).putInt(name.length).put(name);
+                frame.put((byte) 0).putInt(random.nextInt(10000)).put((byte) id);
+            }
+        }
+        frame.put((byte) 0);
+    }
+
+    private void putWizards(ByteBuffer frame) {
+        int count = random.nextInt(WIZARD_COUNT + 1);
+        frame.putInt(count);
+
+        for (int i = 0; i < count; ++i) {
+            if (random.nextInt(8) == 0) {
+                frame.put((byte) 0);
+                continue;
+            }
+
+            long id = FIRST_WIZARD_ID + i;
+            frame.put((byte) 1);
+            putLivingUnit(frame, id);
+            frame.putLong(id <= 5L ? 1L : 2L).put((byte) (id == 1L ? 1 : 0));
+            frame.putInt(random.nextInt(100)).putInt(100).putDouble(600.0D).putDouble(500.0D);
+            frame.putInt(random.nextInt(5000)).putInt(random.nextInt(20));
+
+            int skillCount = random.nextInt(4);
+            frame.putInt(skillCount);
+            for (int j = 0; j < skillCount; ++j) {
+                frame.put((byte) random.nextInt(SKILL_TYPE_COUNT));
+            }
+
+            frame.putInt(random.nextInt(60)).putInt(7);
+            for (int j = 0; j < 7; ++j) {
+                frame.putInt(random.nextInt(60));
+            }
+            frame.put((byte) (id == 1L || id == 6L ? 1 : 0));
+
+            int messageCount = random.nextInt(3);
+            frame.putInt(messageCount);
+            for (int j = 0; j < messageCount; ++j) {
+                if (random.nextInt(4) == 0) {
+                    frame.put((byte) 0);
+                } else {
+                    byte[] rawMessage = new byte[random.nextInt(16)];
+                    random.nextBytes(rawMessage);
+                    frame.put((byte) 1).put((byte) random.nextInt(LANE_TYPE_COUNT));
+                    frame.put((byte) random.nextInt(SKILL_TYPE_COUNT)).putInt(rawMessage.length).put(rawMessage);
+                }
+            }
+        }
+    }
+
+    private void putMinions(ByteBuffer frame) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = FIRST_MINION_ID; id < FIRST_MINION_ID + MINION_COUNT; ++id) {
+            if (random.nextInt(3) > 0) {
+                ids.add(id);
+            }
+        }
+
+        frame.putInt(ids.size() + 1);
+        for (long id : ids) {
+            if (previousMinionIds.contains(id) && random.nextBoolean()) {
+                frame.put(REUSED_UNIT).putLong(id);
+            } else {
+                frame.put(FULL_UNIT);
+                putLivingUnit(frame, id);
+                frame.put((byte) random.nextInt(MINION_TYPE_COUNT)).putDouble(400.0D);
+                frame.putInt(12).putInt(60).putInt(random.nextInt(60));
+            }
+        }
+        frame.put((byte) 0);
+
+        previousMinionIds = ids;
+    }
+
+    private void putProjectiles(ByteBuffer frame, int count) {
+        frame.putInt(count);
+
+        for (int i = 0; i < count; ++i) {
+            if (random.nextInt(16) == 0) {
+                frame.put((byte) 0);
+            } else {
+                frame.put((byte) 1);
+                putUnit(frame, nextProjectileId++);
+                frame.put((byte) random.nextInt(PROJECTILE_TYPE_COUNT));
+                frame.putLong(FIRST_WIZARD_ID + random.nextInt(WIZARD_COUNT)).putLong(1L + random.nextInt(2));
+            }
+        }
+    }
+
+    private void putBonuses(ByteBuffer frame) {
+        int count = random.nextInt(3);
+        frame.putInt(count);
+
+        for (int i = 0; i < count; ++i) {
+            frame.put((byte) 1);
+            putUnit(frame, 900L + i);
+            frame.put((byte) random.nextInt(BONUS_TYPE_COUNT));
+        }
+    }
+
+    /**
+     * Reuses the previous array of buildings or trees, or sends a new one where each unit of the previous array is
+     * either reused by id or sent again.
+     *
+     * @return Whether the array was sent.
+     */
+    private boolean putStaticUnits(ByteBuffer frame, long firstId, int count, List<Long> previousIds) {
+        if (tickIndex > 0 && random.nextBoolean()) {
+            frame.putInt(REUSED_ARRAY);
+            return false;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; ++id) {
+            if (random.nextInt(4) > 0) {
+                ids.add(id);
+            }
+        }
+
+        frame.putInt(ids.size());
+        for (long id : ids) {
+            if (previousIds.contains(id) && random.nextBoolean()) {
+                frame.put(REUSED_UNIT).putLong(id);
+            } else {
+                frame.put(FULL_UNIT);
+                putLivingUnit(frame, id);
+                if (firstId == FIRST_BUILDING_ID) {
+                    frame.put((byte) random.nextInt(BUILDING_TYPE_COUNT)).putDouble(800.0D).putDouble(600.0D);
+                    frame.putInt(48).putInt(240).putInt(random.nextInt(240));
+                }
+            }
+        }
+
+        previousIds.clear();
+        previousIds.addAll(ids);
+        return true;
+    }
+
+    private void putLivingUnit(ByteBuffer frame, long id) {
+        putUnit(frame, id);
+        frame.putInt(random.nextInt(500)).putInt(500);
+
+        int statusCount = random.nextInt(3);
+        frame.putInt(statusCount);
+        for (int i = 0; i < statusCount; ++i) {
+            if (random.nextInt(4) == 0) {
+                frame.put((byte) 0);
+            } else {
+                frame.put((byte) 1).putLong(random.nextInt(1000)).put((byte) random.nextInt(STATUS_TYPE_COUNT));
+                frame.putLong(FIRST_WIZARD_ID + random.nextInt(WIZARD_COUNT)).putLong(1L + random.nextInt(2));
+                frame.putInt(random.nextInt(600));
+            }
+        }
+    }
+
+    private void putUnit(ByteBuffer frame, long id) {
+        frame.putLong(id);
+        frame.putDouble(4000.0D * random.nextDouble()).putDouble(4000.0D * random.nextDouble());
+        frame.putDouble(random.nextGaussian()).putDouble(random.nextGaussian());
+        frame.putDouble(StrictMath.PI * (2.0D * random.nextDouble() - 1.0D));
+        frame.put((byte) random.nextInt(FACTION_COUNT)).putDouble(10.0D + 40.0D * random.nextDouble());
+    }
+}
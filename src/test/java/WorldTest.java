@@ -0,0 +1,120 @@
+import model.Bonus;
+import model.Building;
+import model.Faction;
+import model.Minion;
+import model.Player;
+import model.Projectile;
+import model.Tree;
+import model.Unit;
+import model.Wizard;
+import model.World;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WorldTest {
+    /**
+     * Worlds are decoded eagerly and lazily, so the lookup and the partitions also load sections on demand.
+     */
+    @Test
+    public void lookupAndPartitionsMatchUnitArrays() throws IOException {
+        for (boolean lazyDecoding : new boolean[]{false, true}) {
+            LoopbackTransport transport = new LoopbackTransport();
+            RemoteProcessClient client = new RemoteProcessClient(transport);
+            client.setLazyDecoding(lazyDecoding);
+            WorldFrames frames = new WorldFrames(15L);
+
+            for (int tickIndex = 0; tickIndex < 50; ++tickIndex) {
+                transport.getPeer().write(frames.next(tickIndex * 3));
+                World world = client.readPlayerContext().getWorld();
+
+                // looked up first, so that the index loads the lazy sections itself
+                assertNull(world.getUnitById(0L));
+                assertNull(world.getUnitById(-1L));
+                assertNull(world.getUnitById(Long.MAX_VALUE));
+                assertNull(world.getUnitById(999L));
+
+                assertPartition(world.getWizards(), world::getWizardCount, world::getWizard);
+                assertPartition(world.getMinions(), world::getMinionCount, world::getMinion);
+                assertPartition(world.getBuildings(), world::getBuildingCount, world::getBuilding);
+
+                int unitCount = 0;
+                for (Unit[] units : new Unit[][]{
+                        world.getWizards(), world.getMinions(), world.getProjectiles(), world.getBonuses(),
+                        world.getBuildings(), world.getTrees()}) {
+                    for (Unit unit : units) {
+                        if (unit != null) {
+                            assertSame(unit, world.getUnitById(unit.getId()));
+                            ++unitCount;
+                        }
+                    }
+                }
+                assertTrue(unitCount > 0);
+            }
+        }
+    }
+
+    @Test
+    public void emptyWorldHasNoUnits() {
+        World world = new World(
+                0, 20000, 4000.0D, 4000.0D, new model.Player[0], new model.Wizard[0], new model.Minion[0],
+                new model.Projectile[0], new model.Bonus[0], new model.Building[0], new model.Tree[0]
+        );
+
+        assertNull(world.getUnitById(1L));
+        for (Faction faction : Faction.values()) {
+            assertEquals(0, world.getWizardCount(faction));
+            assertEquals(0, world.getMinionCount(faction));
+            assertEquals(0, world.getBuildingCount(faction));
+        }
+    }
+
+    /**
+     * Every unit must appear exactly once, in the partition of its faction, and in the order of the array.
+     */
+    private static <U extends Unit> void assertPartition(
+            U[] units, Function<Faction, Integer> counter, BiFunction<Faction, Integer, U> getter) {
+        Map<U, Integer> occurrences = new IdentityHashMap<>();
+        int unitCount = 0;
+
+        for (Faction faction : Faction.values()) {
+            int previousIndex = -1;
+            for (int index = 0; index < counter.apply(faction); ++index) {
+                U unit = getter.apply(faction, index);
+                assertSame(faction, unit.getFaction());
+                occurrences.merge(unit, 1, Integer::sum);
+
+                int arrayIndex = indexOf(units, unit);
+                assertTrue(arrayIndex > previousIndex);
+                previousIndex = arrayIndex;
+            }
+        }
+
+        for (U unit : units) {
+            if (unit != null) {
+                assertEquals(Integer.valueOf(1), occurrences.get(unit));
+                ++unitCount;
+            }
+        }
+        assertEquals(unitCount, occurrences.size());
+    }
+
+    private static int indexOf(Object[] units, Object unit) {
+        for (int index = 0; index < units.length; ++index) {
+            if (units[index] == unit) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+}